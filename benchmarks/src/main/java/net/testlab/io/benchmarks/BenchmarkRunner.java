@@ -0,0 +1,27 @@
+package net.testlab.io.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+    /**
+     * Runs benchmarks selected by the usual JMH command line options
+     * with the GC profiler enabled so that allocation rate is reported
+     * next to throughput
+     *
+     * @param args - JMH command line options
+     * @throws Exception if options are wrong or benchmarks fail
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+
+}
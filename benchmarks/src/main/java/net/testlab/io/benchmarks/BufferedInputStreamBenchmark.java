@@ -0,0 +1,91 @@
+package net.testlab.io.benchmarks;
+
+import net.testlab.io.BufferedInputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BufferedInputStreamBenchmark {
+
+    @Param({"testlab", "jdk"})
+    String implementation;
+
+    @Param({"512", "8192", "65536", "1048576"})
+    int bufferSize;
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    int payloadSize;
+
+    @Param({"memory", "file"})
+    String source;
+
+    @Param({"4096"})
+    int chunkSize;
+
+    private byte[] payload;
+    private Path file;
+    private byte[] chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        payload = Payloads.random(payloadSize);
+        if ("file".equals(source)) {
+            file = Payloads.writeTempFile(payload);
+        }
+        chunk = new byte[chunkSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public int readSingleBytes(ByteCounter counter) throws IOException {
+        int checksum = 0;
+        try (InputStream in = open()) {
+            int b;
+            while ((b = in.read()) >= 0) {
+                checksum += b;
+            }
+        }
+        counter.bytes += payloadSize;
+        return checksum;
+    }
+
+    @Benchmark
+    public int readBulk(ByteCounter counter) throws IOException {
+        int checksum = 0;
+        try (InputStream in = open()) {
+            int n;
+            while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+                checksum += n + chunk[0];
+            }
+        }
+        counter.bytes += payloadSize;
+        return checksum;
+    }
+
+    private InputStream open() throws IOException {
+        InputStream in = file != null
+                ? new FileInputStream(file.toFile())
+                : new java.io.ByteArrayInputStream(payload);
+        return "jdk".equals(implementation)
+                ? new java.io.BufferedInputStream(in, bufferSize)
+                : new BufferedInputStream(in, bufferSize);
+    }
+
+}
@@ -0,0 +1,83 @@
+package net.testlab.io.benchmarks;
+
+import net.testlab.io.BufferedOuputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BufferedOutputStreamBenchmark {
+
+    @Param({"testlab", "jdk"})
+    String implementation;
+
+    @Param({"512", "8192", "65536", "1048576"})
+    int bufferSize;
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    int payloadSize;
+
+    @Param({"memory", "file"})
+    String sink;
+
+    @Param({"4096"})
+    int chunkSize;
+
+    private byte[] payload;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        payload = Payloads.random(payloadSize);
+        if ("file".equals(sink)) {
+            file = Files.createTempFile("iodecorators-bench", ".bin");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public void writeSingleBytes(ByteCounter counter) throws IOException {
+        try (OutputStream out = open()) {
+            for (byte b : payload) {
+                out.write(b);
+            }
+        }
+        counter.bytes += payloadSize;
+    }
+
+    @Benchmark
+    public void writeBulk(ByteCounter counter) throws IOException {
+        try (OutputStream out = open()) {
+            for (int offset = 0; offset < payloadSize; offset += chunkSize) {
+                out.write(payload, offset, Math.min(chunkSize, payloadSize - offset));
+            }
+        }
+        counter.bytes += payloadSize;
+    }
+
+    private OutputStream open() throws IOException {
+        OutputStream out = file != null
+                ? new FileOutputStream(file.toFile())
+                : OutputStream.nullOutputStream();
+        return "jdk".equals(implementation)
+                ? new java.io.BufferedOutputStream(out, bufferSize)
+                : new BufferedOuputStream(out, bufferSize);
+    }
+
+}
@@ -0,0 +1,85 @@
+package net.testlab.io.benchmarks;
+
+import net.testlab.io.ByteArrayInputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ByteArrayInputStreamBenchmark {
+
+    @Param({"testlab", "jdk"})
+    String implementation;
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    int payloadSize;
+
+    @Param({"4096"})
+    int chunkSize;
+
+    private byte[] payload;
+    private byte[] chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = Payloads.random(payloadSize);
+        chunk = new byte[chunkSize];
+    }
+
+    @Benchmark
+    public int readSingleBytes(ByteCounter counter) throws IOException {
+        int checksum = 0;
+        InputStream in = open();
+        int b;
+        while ((b = in.read()) >= 0) {
+            checksum += b;
+        }
+        counter.bytes += payloadSize;
+        return checksum;
+    }
+
+    @Benchmark
+    public int readBulk(ByteCounter counter) throws IOException {
+        int checksum = 0;
+        InputStream in = open();
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+            checksum += n + chunk[0];
+        }
+        counter.bytes += payloadSize;
+        return checksum;
+    }
+
+    @Benchmark
+    public long skip(ByteCounter counter) throws IOException {
+        InputStream in = open();
+        long skipped = 0;
+        while (in.available() > 0) {
+            skipped += in.skip(chunkSize);
+        }
+        counter.bytes += payloadSize;
+        return skipped;
+    }
+
+    @Benchmark
+    public long transferTo(ByteCounter counter) throws IOException {
+        long transferred = open().transferTo(OutputStream.nullOutputStream());
+        counter.bytes += payloadSize;
+        return transferred;
+    }
+
+    private InputStream open() {
+        return "jdk".equals(implementation)
+                ? new java.io.ByteArrayInputStream(payload)
+                : new ByteArrayInputStream(payload);
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.testlab.io.benchmarks;
+
+import net.testlab.io.ByteArrayOutputStream;
+import net.testlab.io.SegmentedByteArrayOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ByteArrayOutputStreamBenchmark {
+
+    @Param({"testlab", "segmented", "jdk"})
+    String implementation;
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    int payloadSize;
+
+    @Param({"4096"})
+    int chunkSize;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payload = Payloads.random(payloadSize);
+    }
+
+    @Benchmark
+    public OutputStream writeSingleBytes(ByteCounter counter) throws IOException {
+        OutputStream out = open();
+        for (byte b : payload) {
+            out.write(b);
+        }
+        counter.bytes += payloadSize;
+        return out;
+    }
+
+    @Benchmark
+    public OutputStream writeBulk(ByteCounter counter) throws IOException {
+        OutputStream out = open();
+        for (int offset = 0; offset < payloadSize; offset += chunkSize) {
+            out.write(payload, offset, Math.min(chunkSize, payloadSize - offset));
+        }
+        counter.bytes += payloadSize;
+        return out;
+    }
+
+    private OutputStream open() {
+        switch (implementation) {
+            case "jdk":
+                return new java.io.ByteArrayOutputStream();
+            case "segmented":
+                return new SegmentedByteArrayOutputStream();
+            default:
+                return new ByteArrayOutputStream();
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package net.testlab.io.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * Creates an array of the indicated size filled with reproducible random data
+     *
+     * @param size - payload size
+     * @return payload
+     */
+    static byte[] random(int size) {
+        byte[] payload = new byte[size];
+        new Random(42).nextBytes(payload);
+        return payload;
+    }
+
+    /**
+     * Writes the payload into a new temporary file
+     *
+     * @param payload - data to be written
+     * @return path of the file created
+     * @throws IOException if gets IOException while writing the file
+     */
+    static Path writeTempFile(byte[] payload) throws IOException {
+        Path file = Files.createTempFile("iodecorators-bench", ".bin");
+        Files.write(file, payload);
+        return file;
+    }
+
+}
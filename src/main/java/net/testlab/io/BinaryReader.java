@@ -0,0 +1,390 @@
+package net.testlab.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+public class BinaryReader {
+
+    private final Source source;
+    private final ByteOrder order;
+    private final VarHandle shortView;
+    private final VarHandle intView;
+    private final VarHandle longView;
+
+    /**
+     * Takes buffered input stream from which the values should be read.
+     * Reads values in big-endian order like java.io.DataInputStream
+     *
+     * @param in - buffered input stream
+     */
+    public BinaryReader(BufferedInputStream in) {
+        this(in, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Takes buffered input stream from which the values should be read and the byte order.
+     * Values available in the buffer are decoded directly from it, values split
+     * by the end of the buffer are decoded after moving the rest of the buffer to its start
+     *
+     * @param in    - buffered input stream
+     * @param order - byte order of the values
+     */
+    public BinaryReader(BufferedInputStream in, ByteOrder order) {
+        this(new Source() {
+            @Override
+            byte[] array() {
+                return in.bufferArray();
+            }
+
+            @Override
+            int position() {
+                return in.bufferPosition();
+            }
+
+            @Override
+            int require(int n) throws IOException {
+                return in.fillAtLeast(n);
+            }
+
+            @Override
+            int buffered() {
+                return in.bufferedCount();
+            }
+
+            @Override
+            void consume(int n) {
+                in.consume(n);
+            }
+
+            @Override
+            int read() throws IOException {
+                return in.read();
+            }
+        }, order);
+        if (in == null) {
+            throw new NullPointerException("Parameter \"in\" is null");
+        }
+    }
+
+    /**
+     * Takes byte array input stream from which the values should be read.
+     * Reads values in big-endian order like java.io.DataInputStream
+     *
+     * @param in - byte array input stream
+     */
+    public BinaryReader(ByteArrayInputStream in) {
+        this(in, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Takes byte array input stream from which the values should be read and
+     * the byte order. Values are decoded directly from the array of the stream
+     *
+     * @param in    - byte array input stream
+     * @param order - byte order of the values
+     */
+    public BinaryReader(ByteArrayInputStream in, ByteOrder order) {
+        this(new Source() {
+            @Override
+            byte[] array() {
+                return in.bufferArray();
+            }
+
+            @Override
+            int position() {
+                return in.bufferPosition();
+            }
+
+            @Override
+            int require(int n) {
+                return in.available();
+            }
+
+            @Override
+            int buffered() {
+                return in.available();
+            }
+
+            @Override
+            void consume(int n) {
+                in.consume(n);
+            }
+
+            @Override
+            int read() {
+                return in.read();
+            }
+        }, order);
+        if (in == null) {
+            throw new NullPointerException("Parameter \"in\" is null");
+        }
+    }
+
+    /**
+     * Takes the source of bytes and the byte order
+     *
+     * @param source - source of bytes
+     * @param order  - byte order of the values
+     */
+    private BinaryReader(Source source, ByteOrder order) {
+        if (order == null) {
+            throw new NullPointerException("Parameter \"order\" is null");
+        }
+        this.source = source;
+        this.order = order;
+        this.shortView = MethodHandles.byteArrayViewVarHandle(short[].class, order);
+        this.intView = MethodHandles.byteArrayViewVarHandle(int[].class, order);
+        this.longView = MethodHandles.byteArrayViewVarHandle(long[].class, order);
+    }
+
+    /**
+     * Returns the byte order of the values
+     *
+     * @return byte order
+     */
+    public ByteOrder order() {
+        return order;
+    }
+
+    /**
+     * Reads one byte
+     *
+     * @return byte read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public byte readByte() throws IOException {
+        return (byte) readUnsignedByte();
+    }
+
+    /**
+     * Reads one byte as an unsigned value
+     *
+     * @return byte read in range 0..255
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public int readUnsignedByte() throws IOException {
+        int b = source.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    /**
+     * Reads two bytes as a short value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public short readShort() throws IOException {
+        if (source.require(Short.BYTES) >= Short.BYTES) {
+            short value = (short) shortView.get(source.array(), source.position());
+            source.consume(Short.BYTES);
+            return value;
+        }
+        return (short) readSlowly(Short.BYTES);
+    }
+
+    /**
+     * Reads four bytes as an int value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public int readInt() throws IOException {
+        if (source.require(Integer.BYTES) >= Integer.BYTES) {
+            int value = (int) intView.get(source.array(), source.position());
+            source.consume(Integer.BYTES);
+            return value;
+        }
+        return (int) readSlowly(Integer.BYTES);
+    }
+
+    /**
+     * Reads eight bytes as a long value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public long readLong() throws IOException {
+        if (source.require(Long.BYTES) >= Long.BYTES) {
+            long value = (long) longView.get(source.array(), source.position());
+            source.consume(Long.BYTES);
+            return value;
+        }
+        return readSlowly(Long.BYTES);
+    }
+
+    /**
+     * Reads four bytes as a float value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    /**
+     * Reads eight bytes as a double value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint of at most five bytes.
+     * The fifth byte may carry only the four highest bits of the value
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if the varint is malformed or gets IOException while reading the stream
+     */
+    public int readVarInt() throws IOException {
+        return (int) readVarLong(Integer.SIZE);
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint of at most ten bytes
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if the varint is malformed or gets IOException while reading the stream
+     */
+    public long readVarLong() throws IOException {
+        return readVarLong(Long.SIZE);
+    }
+
+    /**
+     * Reads a zigzag encoded LEB128 varint of at most five bytes
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if the varint is malformed or gets IOException while reading the stream
+     */
+    public int readZigZagInt() throws IOException {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a zigzag encoded LEB128 varint of at most ten bytes
+     *
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if the varint is malformed or gets IOException while reading the stream
+     */
+    public long readZigZagLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Decodes a varint directly from the buffer if it already holds the longest
+     * possible encoding, otherwise reads it byte by byte. The underlying stream is
+     * never asked for bytes after the end of the varint, so a varint sent alone
+     * is read without waiting for more data. The last possible byte must not
+     * carry bits above the width of the value
+     *
+     * @param bits - number of bits of the value
+     * @return value read
+     * @throws IOException if the varint is malformed or gets IOException while reading the stream
+     */
+    private long readVarLong(int bits) throws IOException {
+        int maxBytes = (bits + 6) / 7;
+        int lastByteMax = (1 << (bits - 7 * (maxBytes - 1))) - 1;
+        long value = 0;
+        if (source.buffered() >= maxBytes) {
+            byte[] array = source.array();
+            int start = source.position();
+            for (int i = 0; i < maxBytes; i++) {
+                byte b = array[start + i];
+                if (i == maxBytes - 1 && (b & 0xFF) > lastByteMax) {
+                    break;
+                }
+                value |= (long) (b & 0x7F) << (7 * i);
+                if (b >= 0) {
+                    source.consume(i + 1);
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+        for (int i = 0; i < maxBytes; i++) {
+            int b = readUnsignedByte();
+            if (i == maxBytes - 1 && b > lastByteMax) {
+                break;
+            }
+            value |= (long) (b & 0x7F) << (7 * i);
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Reads a value split by the end of the buffer byte by byte
+     *
+     * @param size - number of bytes of the value
+     * @return value read
+     * @throws EOFException if end of the stream
+     * @throws IOException  if gets IOException while reading the stream
+     */
+    private long readSlowly(int size) throws IOException {
+        long value = 0;
+        if (order == ByteOrder.BIG_ENDIAN) {
+            for (int i = 0; i < size; i++) {
+                value = (value << 8) | readUnsignedByte();
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                value |= (long) readUnsignedByte() << (8 * i);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Window of buffered bytes of the underlying stream
+     */
+    private abstract static class Source {
+
+        abstract byte[] array();
+
+        abstract int position();
+
+        /**
+         * Makes the indicated number of bytes available if possible
+         *
+         * @param n - number of bytes needed
+         * @return number of bytes available from position()
+         */
+        abstract int require(int n) throws IOException;
+
+        /**
+         * Returns the number of bytes available without reading the underlying stream
+         *
+         * @return number of bytes available from position()
+         */
+        abstract int buffered();
+
+        abstract void consume(int n);
+
+        abstract int read() throws IOException;
+    }
+
+}
@@ -0,0 +1,353 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+public class BinaryWriter {
+
+    private final Sink sink;
+    private final ByteOrder order;
+    private final VarHandle shortView;
+    private final VarHandle intView;
+    private final VarHandle longView;
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    /**
+     * Takes buffered output stream into which the values should be written.
+     * Writes values in big-endian order like java.io.DataOutputStream
+     *
+     * @param out - buffered output stream
+     */
+    public BinaryWriter(BufferedOuputStream out) {
+        this(out, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Takes buffered output stream into which the values should be written and the byte order.
+     * Values are encoded directly into the buffer of the stream, the buffer is written
+     * into the underlying stream first if the value does not fit
+     *
+     * @param out   - buffered output stream
+     * @param order - byte order of the values
+     */
+    public BinaryWriter(BufferedOuputStream out, ByteOrder order) {
+        this(new Sink() {
+            @Override
+            int reserve(int n) throws IOException {
+                return out.ensureFree(n);
+            }
+
+            @Override
+            int room(int n) {
+                return out.freeCount();
+            }
+
+            @Override
+            byte[] array() {
+                return out.bufferArray();
+            }
+
+            @Override
+            int count() {
+                return out.bufferCount();
+            }
+
+            @Override
+            void commit(int n) {
+                out.commit(n);
+            }
+
+            @Override
+            void write(int b) throws IOException {
+                out.write(b);
+            }
+        }, order);
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+    }
+
+    /**
+     * Takes byte array output stream into which the values should be written.
+     * Writes values in big-endian order like java.io.DataOutputStream
+     *
+     * @param out - byte array output stream
+     */
+    public BinaryWriter(ByteArrayOutputStream out) {
+        this(out, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Takes byte array output stream into which the values should be written and
+     * the byte order. Values are encoded directly into the array of the stream
+     *
+     * @param out   - byte array output stream
+     * @param order - byte order of the values
+     */
+    public BinaryWriter(ByteArrayOutputStream out, ByteOrder order) {
+        this(new Sink() {
+            @Override
+            int reserve(int n) {
+                out.reserve(n);
+                return n;
+            }
+
+            @Override
+            int room(int n) {
+                return reserve(n);
+            }
+
+            @Override
+            byte[] array() {
+                return out.bufferArray();
+            }
+
+            @Override
+            int count() {
+                return out.size();
+            }
+
+            @Override
+            void commit(int n) {
+                out.commit(n);
+            }
+
+            @Override
+            void write(int b) {
+                out.write(b);
+            }
+        }, order);
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+    }
+
+    /**
+     * Takes the sink of bytes and the byte order
+     *
+     * @param sink  - sink of bytes
+     * @param order - byte order of the values
+     */
+    private BinaryWriter(Sink sink, ByteOrder order) {
+        if (order == null) {
+            throw new NullPointerException("Parameter \"order\" is null");
+        }
+        this.sink = sink;
+        this.order = order;
+        this.shortView = MethodHandles.byteArrayViewVarHandle(short[].class, order);
+        this.intView = MethodHandles.byteArrayViewVarHandle(int[].class, order);
+        this.longView = MethodHandles.byteArrayViewVarHandle(long[].class, order);
+    }
+
+    /**
+     * Returns the byte order of the values
+     *
+     * @return byte order
+     */
+    public ByteOrder order() {
+        return order;
+    }
+
+    /**
+     * Writes the low eight bits of the value
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeByte(int value) throws IOException {
+        sink.write(value);
+    }
+
+    /**
+     * Writes the low sixteen bits of the value
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeShort(int value) throws IOException {
+        if (sink.reserve(Short.BYTES) >= Short.BYTES) {
+            shortView.set(sink.array(), sink.count(), (short) value);
+            sink.commit(Short.BYTES);
+        } else {
+            writeSlowly(value, Short.BYTES);
+        }
+    }
+
+    /**
+     * Writes four bytes of the int value
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeInt(int value) throws IOException {
+        if (sink.reserve(Integer.BYTES) >= Integer.BYTES) {
+            intView.set(sink.array(), sink.count(), value);
+            sink.commit(Integer.BYTES);
+        } else {
+            writeSlowly(value, Integer.BYTES);
+        }
+    }
+
+    /**
+     * Writes eight bytes of the long value
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeLong(long value) throws IOException {
+        if (sink.reserve(Long.BYTES) >= Long.BYTES) {
+            longView.set(sink.array(), sink.count(), value);
+            sink.commit(Long.BYTES);
+        } else {
+            writeSlowly(value, Long.BYTES);
+        }
+    }
+
+    /**
+     * Writes the float value as four bytes of its bits
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeFloat(float value) throws IOException {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    /**
+     * Writes the double value as eight bytes of its bits
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeDouble(double value) throws IOException {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Writes the int value as an unsigned LEB128 varint of one to five bytes.
+     * Negative values always take five bytes
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL, MAX_VARINT_BYTES);
+    }
+
+    /**
+     * Writes the long value as an unsigned LEB128 varint of one to ten bytes.
+     * Negative values always take ten bytes
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeVarLong(long value) throws IOException {
+        writeVarLong(value, MAX_VARLONG_BYTES);
+    }
+
+    /**
+     * Writes the int value as a zigzag encoded LEB128 varint,
+     * so small negative values take few bytes
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeZigZagInt(int value) throws IOException {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes the long value as a zigzag encoded LEB128 varint,
+     * so small negative values take few bytes
+     *
+     * @param value - value to be written
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeZigZagLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Encodes a varint directly into the buffer if it has room for the encoding,
+     * otherwise writes it byte by byte, so the buffer is written into the underlying
+     * stream only when it is full
+     *
+     * @param value    - unsigned value to be written
+     * @param maxBytes - maximum length of the encoding
+     * @throws IOException if gets IOException while writing the stream
+     */
+    private void writeVarLong(long value, int maxBytes) throws IOException {
+        int length = Math.min(maxBytes, (Long.SIZE - Long.numberOfLeadingZeros(value | 1) + 6) / 7);
+        if (sink.room(length) >= length) {
+            byte[] array = sink.array();
+            int start = sink.count();
+            int i = start;
+            while ((value & ~0x7FL) != 0) {
+                array[i++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            array[i++] = (byte) value;
+            sink.commit(i - start);
+            return;
+        }
+        while ((value & ~0x7FL) != 0) {
+            sink.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        sink.write((int) value);
+    }
+
+    /**
+     * Writes a value which does not fit into the buffer byte by byte
+     *
+     * @param value - value to be written
+     * @param size  - number of bytes of the value
+     * @throws IOException if gets IOException while writing the stream
+     */
+    private void writeSlowly(long value, int size) throws IOException {
+        if (order == ByteOrder.BIG_ENDIAN) {
+            for (int i = size - 1; i >= 0; i--) {
+                sink.write((int) (value >>> (8 * i)));
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                sink.write((int) (value >>> (8 * i)));
+            }
+        }
+    }
+
+    /**
+     * Free part of the buffer of the underlying stream
+     */
+    private abstract static class Sink {
+
+        /**
+         * Makes room for the indicated number of bytes if possible
+         *
+         * @param n - number of bytes needed
+         * @return number of free bytes from count()
+         */
+        abstract int reserve(int n) throws IOException;
+
+        /**
+         * Makes room for the indicated number of bytes only if
+         * nothing has to be written into the underlying stream for it
+         *
+         * @param n - number of bytes needed
+         * @return number of free bytes from count()
+         */
+        abstract int room(int n);
+
+        abstract byte[] array();
+
+        abstract int count();
+
+        abstract void commit(int n);
+
+        abstract void write(int b) throws IOException;
+    }
+
+}
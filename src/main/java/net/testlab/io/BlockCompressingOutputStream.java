@@ -0,0 +1,306 @@
+package net.testlab.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+public class BlockCompressingOutputStream extends FilterOutputStream {
+
+    private final byte[] block;
+    private int count;
+    private final BufferedOuputStream buffered;
+    private byte[] compressed;
+    private int compressedCount;
+    private final BlockFormat format;
+    private final int level;
+    private final CodecPool codecs;
+    private Deflater deflater;
+    private static final int INITIAL_BLOCK_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MIN_WINDOW = 256;
+    private static final VarHandle INT_VIEW =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Takes output stream into which the compressed data should be written.
+     * Compresses blocks of default size with default level into a raw deflate stream
+     *
+     * @param out - underlying output stream
+     */
+    public BlockCompressingOutputStream(OutputStream out) {
+        this(out, INITIAL_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION, BlockFormat.RAW);
+    }
+
+    /**
+     * Takes output stream into which the compressed data should be written,
+     * the block size, the compression level and the format. The deflater is
+     * borrowed from the shared codec pool
+     *
+     * @param out       - underlying output stream
+     * @param blockSize - number of bytes compressed at a time
+     * @param level     - compression level from -1 (default) to 9
+     * @param format    - format of the compressed data
+     * @throws IllegalArgumentException if blockSize <= 0 or level is out of range
+     */
+    public BlockCompressingOutputStream(OutputStream out, int blockSize, int level, BlockFormat format) {
+        this(out, blockSize, level, format, CodecPool.shared());
+    }
+
+    /**
+     * Takes output stream into which the compressed data should be written,
+     * the block size, the compression level, the format and the codec pool.
+     * Whole blocks are handed to the deflater at a time, and writes of at least
+     * a block are compressed straight from the caller's array. If the underlying
+     * stream is a BufferedOuputStream the raw format is deflated directly into its buffer
+     *
+     * @param out       - underlying output stream
+     * @param blockSize - number of bytes compressed at a time
+     * @param level     - compression level from -1 (default) to 9
+     * @param format    - format of the compressed data
+     * @param codecs    - pool from which the deflater is borrowed
+     * @throws IllegalArgumentException if blockSize <= 0 or level is out of range
+     */
+    public BlockCompressingOutputStream(OutputStream out, int blockSize, int level, BlockFormat format,
+                                        CodecPool codecs) {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Wrong \"blockSize\"");
+        }
+        if (format == null) {
+            throw new NullPointerException("Parameter \"format\" is null");
+        }
+        if (codecs == null) {
+            throw new NullPointerException("Parameter \"codecs\" is null");
+        }
+        this.format = format;
+        this.level = level;
+        this.codecs = codecs;
+        this.deflater = codecs.acquireDeflater(level, true);
+        this.block = new byte[blockSize];
+        if (format == BlockFormat.RAW && out instanceof BufferedOuputStream) {
+            buffered = (BufferedOuputStream) out;
+        } else {
+            buffered = null;
+            compressed = new byte[format == BlockFormat.FRAMED ? HEADER_SIZE + bound(blockSize) : blockSize];
+        }
+    }
+
+    /**
+     * Writes a byte value into the block.
+     * If the block is full - compresses it
+     *
+     * @param b - byte to be write
+     * @throws IOException if stream is closed or gets IOException while writing
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkIfClosed();
+        if (count >= block.length) {
+            compressBlock(block, 0, count);
+            count = 0;
+        }
+        block[count++] = (byte) b;
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the block compressing
+     * every full block. Whole blocks are compressed directly from the byte array
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if stream is closed or gets IOException while writing
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        checkIfClosed();
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        while (lengthToWrite > 0) {
+            if (count == 0 && lengthToWrite >= block.length) {
+                compressBlock(bytes, offset, block.length);
+                offset += block.length;
+                lengthToWrite -= block.length;
+                continue;
+            }
+            int n = Math.min(block.length - count, lengthToWrite);
+            System.arraycopy(bytes, offset, block, count, n);
+            count += n;
+            offset += n;
+            lengthToWrite -= n;
+            if (count == block.length) {
+                compressBlock(block, 0, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Compresses the bytes of the current block, writes all compressed data
+     * into the underlying stream and flushes it. The raw format is flushed with
+     * a sync flush, so everything written so far can be decompressed
+     *
+     * @throws IOException if stream is closed or gets IOException while writing
+     */
+    @Override
+    public void flush() throws IOException {
+        checkIfClosed();
+        if (count > 0) {
+            compressBlock(block, 0, count);
+            count = 0;
+        }
+        if (format == BlockFormat.RAW) {
+            while (deflate(Deflater.SYNC_FLUSH)) {
+                // the output window was filled, there may be more
+            }
+        }
+        writeCompressed();
+        out.flush();
+    }
+
+    /**
+     * Compresses the rest of the data, finishes the compressed stream, gives
+     * the deflater back to the pool and closes the underlying stream.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException while writing or in close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (deflater == null) {
+            return;
+        }
+        try {
+            if (count > 0) {
+                compressBlock(block, 0, count);
+                count = 0;
+            }
+            if (format == BlockFormat.RAW) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+            }
+            writeCompressed();
+        } finally {
+            codecs.releaseDeflater(deflater, level, true);
+            deflater = null;
+            out.close();
+        }
+    }
+
+    /**
+     * Compresses the bytes. The raw format continues the deflate stream,
+     * the framed format compresses them as a separate frame
+     *
+     * @param bytes  - array with bytes to compress
+     * @param offset - offset in the array
+     * @param length - number of bytes to compress
+     * @throws IOException if gets IOException while writing
+     */
+    private void compressBlock(byte[] bytes, int offset, int length) throws IOException {
+        deflater.setInput(bytes, offset, length);
+        if (format == BlockFormat.RAW) {
+            while (!deflater.needsInput()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+            return;
+        }
+        deflater.finish();
+        int n = HEADER_SIZE;
+        while (!deflater.finished()) {
+            if (n == compressed.length) {
+                compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+            }
+            n += deflater.deflate(compressed, n, compressed.length - n);
+        }
+        deflater.reset();
+        INT_VIEW.set(compressed, 0, n - HEADER_SIZE);
+        INT_VIEW.set(compressed, Integer.BYTES, length);
+        out.write(compressed, 0, n);
+    }
+
+    /**
+     * Deflates into the free part of the buffer of the underlying stream
+     * or into the own output buffer writing it when it is full
+     *
+     * @param flush - deflater flush mode
+     * @return true if the output window was filled completely
+     * @throws IOException if gets IOException while writing
+     */
+    private boolean deflate(int flush) throws IOException {
+        if (buffered != null) {
+            int free = buffered.ensureFree(MIN_WINDOW);
+            int n = deflater.deflate(buffered.bufferArray(), buffered.bufferCount(), free, flush);
+            buffered.commit(n);
+            return n == free;
+        }
+        if (compressedCount == compressed.length) {
+            writeCompressed();
+        }
+        int free = compressed.length - compressedCount;
+        int n = deflater.deflate(compressed, compressedCount, free, flush);
+        compressedCount += n;
+        return n == free;
+    }
+
+    /**
+     * Writes the own output buffer of the raw format into the underlying stream
+     *
+     * @throws IOException if gets IOException while writing
+     */
+    private void writeCompressed() throws IOException {
+        if (compressedCount > 0) {
+            out.write(compressed, 0, compressedCount);
+            compressedCount = 0;
+        }
+    }
+
+    /**
+     * Returns the size of the compressed data of a block which fits
+     * in most cases, incompressible data are stored with a small overhead
+     *
+     * @param blockSize - number of bytes compressed at a time
+     * @return expected maximal compressed size
+     */
+    private static int bound(int blockSize) {
+        long bound = blockSize + (blockSize >>> 12) + (blockSize >>> 14) + 64L;
+        return (int) Math.min(bound, Integer.MAX_VALUE - HEADER_SIZE);
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (deflater == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
@@ -0,0 +1,353 @@
+package net.testlab.io;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class BlockDecompressingInputStream extends FilterInputStream {
+
+    private final BlockFormat format;
+    private final CodecPool codecs;
+    private Inflater inflater;
+    private final BufferedInputStream buffered;
+    private final byte[] input;
+    private int fed;
+    private long compressedRemaining;
+    private int rawRemaining;
+    private boolean finished;
+    private final byte[] single = new byte[1];
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Takes input stream from which the raw deflate stream should be read
+     *
+     * @param in - underlying input stream
+     */
+    public BlockDecompressingInputStream(InputStream in) {
+        this(in, BlockFormat.RAW);
+    }
+
+    /**
+     * Takes input stream from which the compressed data should be read and
+     * their format. The inflater is borrowed from the shared codec pool
+     *
+     * @param in     - underlying input stream
+     * @param format - format of the compressed data
+     */
+    public BlockDecompressingInputStream(InputStream in, BlockFormat format) {
+        this(in, format, CodecPool.shared());
+    }
+
+    /**
+     * Takes input stream from which the compressed data should be read, their
+     * format and the codec pool. Data are inflated directly into the caller's array.
+     * If the underlying stream is a BufferedInputStream the inflater reads
+     * the compressed data directly from its buffer and does not read past
+     * the end of the compressed data
+     *
+     * @param in     - underlying input stream
+     * @param format - format of the compressed data
+     * @param codecs - pool from which the inflater is borrowed
+     */
+    public BlockDecompressingInputStream(InputStream in, BlockFormat format, CodecPool codecs) {
+        super(in);
+        if (format == null) {
+            throw new NullPointerException("Parameter \"format\" is null");
+        }
+        if (codecs == null) {
+            throw new NullPointerException("Parameter \"codecs\" is null");
+        }
+        this.format = format;
+        this.codecs = codecs;
+        this.inflater = codecs.acquireInflater(true);
+        if (in instanceof BufferedInputStream) {
+            buffered = (BufferedInputStream) in;
+            input = null;
+        } else {
+            buffered = null;
+            input = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Reads and decompresses one byte
+     *
+     * @return byte read or -1 if end of the compressed data
+     * @throws IOException if stream is closed, the data are malformed
+     *                     or gets exception while reading the underlying stream
+     */
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) > 0 ? single[0] & 0xFF : -1;
+    }
+
+    /**
+     * Decompresses data into the destination byte array.
+     * Returns number of bytes read.
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @return number of bytes read or -1 if end of the compressed data
+     * @throws IOException if stream is closed, the data are malformed
+     *                     or gets exception while reading the underlying stream
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int lengthToRead) throws IOException {
+        checkIfClosed();
+        validateReadParameters(bytes, offset, lengthToRead);
+        if (lengthToRead == 0) {
+            return 0;
+        }
+        while (!finished) {
+            if (format == BlockFormat.FRAMED && rawRemaining == 0 && !nextBlock()) {
+                finished = true;
+                break;
+            }
+            if (!feed()) {
+                throw new EOFException("Unexpected end of compressed data");
+            }
+            int n;
+            try {
+                n = inflater.inflate(bytes, offset,
+                        format == BlockFormat.FRAMED ? Math.min(lengthToRead, rawRemaining) : lengthToRead);
+            } catch (DataFormatException e) {
+                throw new IOException("Malformed compressed data", e);
+            } finally {
+                settle();
+            }
+            if (n > 0) {
+                if (format == BlockFormat.FRAMED) {
+                    rawRemaining -= n;
+                }
+                return n;
+            }
+            if (inflater.finished()) {
+                if (format == BlockFormat.RAW) {
+                    finished = true;
+                } else if (rawRemaining != 0) {
+                    throw new IOException("Malformed block");
+                }
+            } else if (inflater.needsDictionary()) {
+                throw new IOException("Malformed compressed data");
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the indicated number of decompressed bytes
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed, the data are malformed
+     *                     or gets exception while reading the underlying stream
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkIfClosed();
+        byte[] skipped = new byte[(int) Math.min(Math.max(n, 0), INITIAL_CAPACITY)];
+        long total = 0;
+        while (total < n) {
+            int r = read(skipped, 0, (int) Math.min(skipped.length, n - total));
+            if (r < 0) {
+                break;
+            }
+            total += r;
+        }
+        return total;
+    }
+
+    /**
+     * Returns number of bytes of the current block which are not read yet.
+     * For the raw format the number of decompressed bytes is not known
+     *
+     * @return number of bytes that can be read without blocking
+     * @throws IOException if stream is closed
+     */
+    @Override
+    public int available() throws IOException {
+        checkIfClosed();
+        return finished ? 0 : rawRemaining;
+    }
+
+    /**
+     * Mark is not supported
+     *
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Has no effect
+     */
+    @Override
+    public void mark(int readLimit) {
+    }
+
+    /**
+     * Mark is not supported
+     *
+     * @throws IOException always
+     */
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("Mark is not supported");
+    }
+
+    /**
+     * Gives the inflater back to the pool and closes the underlying input stream.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException in close() method
+     */
+    @Override
+    public void close() throws IOException {
+        if (inflater == null) {
+            return;
+        }
+        codecs.releaseInflater(inflater, true);
+        inflater = null;
+        try {
+            in.close();
+        } finally {
+            in = null;
+        }
+    }
+
+    /**
+     * Gives compressed data to the inflater if it needs them. Data from the buffer
+     * of a BufferedInputStream are given again before every inflation, because
+     * they are consumed only after it
+     *
+     * @return false if the compressed data end before the inflater finished
+     * @throws IOException if gets exception while reading the underlying stream
+     */
+    private boolean feed() throws IOException {
+        long limit = format == BlockFormat.FRAMED ? compressedRemaining : Long.MAX_VALUE;
+        if (buffered != null) {
+            int n = limit > 0 ? (int) Math.min(buffered.fillAtLeast(1), limit) : 0;
+            if (n <= 0) {
+                return inflater.finished() || !inflater.needsInput();
+            }
+            inflater.setInput(buffered.bufferArray(), buffered.bufferPosition(), n);
+            fed = n;
+            return true;
+        }
+        if (!inflater.needsInput()) {
+            return true;
+        }
+        int n = limit > 0 ? in.read(input, 0, (int) Math.min(input.length, limit)) : -1;
+        if (n <= 0) {
+            return inflater.finished();
+        }
+        inflater.setInput(input, 0, n);
+        compressedRemaining -= n;
+        return true;
+    }
+
+    /**
+     * Marks the compressed data taken by the inflater from the buffer
+     * of a BufferedInputStream as read
+     */
+    private void settle() {
+        if (fed > 0) {
+            int consumed = fed - inflater.getRemaining();
+            buffered.consume(consumed);
+            compressedRemaining -= consumed;
+            fed = 0;
+        }
+    }
+
+    /**
+     * Discards the rest of the current frame and reads the header of the next one
+     *
+     * @return false if end of the underlying stream
+     * @throws IOException if the header is malformed or gets exception
+     *                     while reading the underlying stream
+     */
+    private boolean nextBlock() throws IOException {
+        while (compressedRemaining > 0) {
+            long skipped = in.skip(compressedRemaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of compressed data");
+                }
+                skipped = 1;
+            }
+            compressedRemaining -= skipped;
+        }
+        byte[] header = new byte[HEADER_SIZE];
+        int n = 0;
+        while (n < HEADER_SIZE) {
+            int r = in.read(header, n, HEADER_SIZE - n);
+            if (r < 0) {
+                if (n == 0) {
+                    return false;
+                }
+                throw new EOFException("Unexpected end of compressed data");
+            }
+            n += r;
+        }
+        int compressedLength = readInt(header, 0);
+        int rawLength = readInt(header, Integer.BYTES);
+        if (compressedLength <= 0 || rawLength <= 0) {
+            throw new IOException("Malformed block header");
+        }
+        inflater.reset();
+        compressedRemaining = compressedLength;
+        rawRemaining = rawLength;
+        return true;
+    }
+
+    /**
+     * Reads a big-endian int from the array
+     *
+     * @param bytes  - array
+     * @param offset - offset of the int
+     * @return int value
+     */
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    private void validateReadParameters(byte[] bytes, int offset, int lengthToRead) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToRead < 0 || offset > bytes.length - lengthToRead) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToRead\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (inflater == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package net.testlab.io;
+
+public enum BlockFormat {
+
+    /**
+     * One continuous raw deflate stream without the zlib header and checksum.
+     * Blocks are compressed with a shared dictionary, so it compresses better,
+     * but the data can be decompressed only from the start
+     */
+    RAW,
+
+    /**
+     * Every block is compressed independently as raw deflate data and preceded
+     * by two big-endian ints: the compressed length and the uncompressed length
+     */
+    FRAMED
+
+}
@@ -0,0 +1,164 @@
+package net.testlab.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public abstract class BufferPool {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxBuffersPerClass;
+    static final int MIN_CLASS_SHIFT = 6;
+    static final int MAX_CLASS_SHIFT = 24;
+    static final int SIZE_CLASSES = MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1;
+
+    /**
+     * Takes the maximum number of free buffers kept for every size class
+     *
+     * @param maxBuffersPerClass - number of free buffers kept per size class
+     * @throws IllegalArgumentException if maxBuffersPerClass <= 0
+     */
+    protected BufferPool(int maxBuffersPerClass) {
+        if (maxBuffersPerClass <= 0) {
+            throw new IllegalArgumentException("Wrong \"maxBuffersPerClass\"");
+        }
+        this.maxBuffersPerClass = maxBuffersPerClass;
+    }
+
+    /**
+     * Creates a pool shared by all threads which keeps
+     * at most the indicated number of free buffers per size class
+     *
+     * @param maxBuffersPerClass - number of free buffers kept per size class
+     * @return shared pool
+     */
+    public static BufferPool shared(int maxBuffersPerClass) {
+        return new SharedBufferPool(maxBuffersPerClass);
+    }
+
+    /**
+     * Creates a pool which keeps free buffers separately for every thread,
+     * at most the indicated number per size class and thread
+     *
+     * @param maxBuffersPerClass - number of free buffers kept per size class and thread
+     * @return thread local pool
+     */
+    public static BufferPool threadLocal(int maxBuffersPerClass) {
+        return new ThreadLocalBufferPool(maxBuffersPerClass);
+    }
+
+    /**
+     * Returns a buffer not shorter than the indicated capacity.
+     * Capacities are rounded up to a power of two size class, capacities
+     * above the largest class are allocated exactly and never pooled
+     *
+     * @param capacity - minimal buffer length
+     * @return free buffer
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public byte[] acquire(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        int sizeClass = sizeClassOf(capacity);
+        if (sizeClass < 0) {
+            misses.increment();
+            return new byte[capacity];
+        }
+        byte[] buffer = poll(sizeClass);
+        if (buffer != null) {
+            hits.increment();
+            return buffer;
+        }
+        misses.increment();
+        return new byte[1 << (sizeClass + MIN_CLASS_SHIFT)];
+    }
+
+    /**
+     * Gives the buffer back to the pool. The buffer must not be used after that.
+     * Buffers which do not match a size class are dropped, buffers which
+     * do not fit into the pool are dropped and counted as evictions
+     *
+     * @param buffer - buffer acquired from this pool
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("Parameter \"buffer\" is null");
+        }
+        int sizeClass = sizeClassOf(buffer.length);
+        if (sizeClass < 0 || buffer.length != 1 << (sizeClass + MIN_CLASS_SHIFT)) {
+            return;
+        }
+        if (!offer(sizeClass, buffer)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Returns number of acquisitions served by a pooled buffer
+     *
+     * @return number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns number of acquisitions which allocated a new buffer
+     *
+     * @return number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns number of released buffers dropped because the pool was full
+     *
+     * @return number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the maximum number of free buffers kept per size class
+     *
+     * @return number of free buffers kept per size class
+     */
+    protected int getMaxBuffersPerClass() {
+        return maxBuffersPerClass;
+    }
+
+    /**
+     * Takes a free buffer of the size class
+     *
+     * @param sizeClass - size class index
+     * @return free buffer or null if there is none
+     */
+    protected abstract byte[] poll(int sizeClass);
+
+    /**
+     * Keeps a free buffer of the size class
+     *
+     * @param sizeClass - size class index
+     * @param buffer    - free buffer
+     * @return false if there is no room for the buffer
+     */
+    protected abstract boolean offer(int sizeClass, byte[] buffer);
+
+    /**
+     * Returns index of the smallest size class which can hold the capacity
+     *
+     * @param capacity - buffer length
+     * @return size class index or -1 if capacity is above the largest class
+     */
+    static int sizeClassOf(int capacity) {
+        if (capacity > 1 << MAX_CLASS_SHIFT) {
+            return -1;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return Math.max(shift, MIN_CLASS_SHIFT) - MIN_CLASS_SHIFT;
+    }
+
+}
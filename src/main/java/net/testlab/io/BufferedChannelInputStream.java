@@ -0,0 +1,250 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+public class BufferedChannelInputStream extends InputStream implements ReadableByteChannel {
+    private ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Takes channel from which the data should be read.
+     * Creates direct buffer with default capacity
+     *
+     * @param channel - underlying channel
+     */
+    public BufferedChannelInputStream(ReadableByteChannel channel) {
+        this(channel, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Takes channel from which the data should be read and the buffer capacity.
+     * Creates direct buffer with the indicated capacity which is reused for every
+     * refill, so the data read from a file channel are not copied through a heap array.
+     * The channel is expected to be in blocking mode
+     *
+     * @param channel  - underlying channel
+     * @param capacity - buffer capacity
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public BufferedChannelInputStream(ReadableByteChannel channel, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+        this.buffer.flip();
+    }
+
+    /**
+     * Reads data from the underlying channel through the buffer.
+     * If there are data in the buffer - read data from buffer,
+     * otherwise - read new portion of data into buffer from the underlying channel
+     *
+     * @return byte read or -1 if underlying channel has no data to read
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying channel
+     */
+    @Override
+    public int read() throws IOException {
+        checkIfClosed();
+        if (!buffer.hasRemaining() && refillBuffer() <= 0) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads data from the underlying channel into the destination byte array
+     * through the buffer. Refills the buffer only if it is empty.
+     * Returns number of bytes read.
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @return number of bytes read or -1 if there was no data to read
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying channel
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int lengthToRead) throws IOException {
+        checkIfClosed();
+        validateReadParameters(bytes, offset, lengthToRead);
+        if (lengthToRead == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && refillBuffer() <= 0) {
+            return -1;
+        }
+        int n = Math.min(buffer.remaining(), lengthToRead);
+        buffer.get(bytes, offset, n);
+        return n;
+    }
+
+    /**
+     * Reads data from the underlying channel into the destination buffer.
+     * Bytes left in the inner buffer are copied first. If the inner buffer is empty
+     * and the destination has room for at least a full buffer the data are read
+     * directly into the destination, which avoids any copy for direct buffers.
+     *
+     * @param dst - destination buffer
+     * @return number of bytes read or -1 if there was no data to read
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying channel
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkIfClosed();
+        if (dst == null) {
+            throw new NullPointerException("Parameter \"dst\" is null");
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            if (dst.remaining() >= buffer.capacity()) {
+                return channel.read(dst);
+            }
+            if (refillBuffer() <= 0) {
+                return -1;
+            }
+        }
+        int n = Math.min(buffer.remaining(), dst.remaining());
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + n);
+        dst.put(buffer);
+        buffer.limit(limit);
+        return n;
+    }
+
+    /**
+     * Skips bytes held in the buffer first. For a file channel moves its position,
+     * for other channels reads and discards the data through the buffer
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying channel
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkIfClosed();
+        if (n <= 0) {
+            return 0;
+        }
+        int buffered = (int) Math.min(buffer.remaining(), n);
+        buffer.position(buffer.position() + buffered);
+        long skipped = buffered;
+        if (skipped < n && channel instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) channel;
+            long position = fileChannel.position();
+            long toSkip = Math.max(0, Math.min(n - skipped, fileChannel.size() - position));
+            fileChannel.position(position + toSkip);
+            skipped += toSkip;
+        }
+        while (skipped < n && refillBuffer() > 0) {
+            int k = (int) Math.min(buffer.remaining(), n - skipped);
+            buffer.position(k);
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns number of bytes held in the buffer. For a file channel
+     * also counts the bytes left in the file
+     *
+     * @return number of bytes that can be read without blocking
+     * @throws IOException if stream is closed or gets exception
+     *                     while querying the underlying channel
+     */
+    @Override
+    public int available() throws IOException {
+        checkIfClosed();
+        long available = buffer.remaining();
+        if (channel instanceof FileChannel) {
+            FileChannel fileChannel = (FileChannel) channel;
+            available += Math.max(0, fileChannel.size() - fileChannel.position());
+        }
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Tells whether the underlying channel is not closed
+     *
+     * @return true if the stream is open
+     */
+    @Override
+    public boolean isOpen() {
+        return channel != null && channel.isOpen();
+    }
+
+    /**
+     * Closes the underlying channel invoking its close() method
+     * and set it to null. Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException in close() method
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * Tries to read the data from the underlying channel
+     * into the buffer and prepares the buffer for reading
+     *
+     * @return number of bytes read into the buffer or -1 if end of the channel
+     * @throws IOException if gets exception while reading from the underlying channel
+     */
+    private int refillBuffer() throws IOException {
+        buffer.clear();
+        int n;
+        try {
+            n = channel.read(buffer);
+        } finally {
+            buffer.flip();
+        }
+        return n;
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    private void validateReadParameters(byte[] bytes, int offset, int lengthToRead) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToRead < 0 || offset > bytes.length - lengthToRead) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToRead\"");
+        }
+    }
+
+    /**
+     * Checks if the underlying channel is closed
+     *
+     * @throws IOException if the underlying channel is null
+     */
+    private void checkIfClosed() throws IOException {
+        if (channel == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
@@ -1,14 +1,31 @@
 package net.testlab.io;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 public class BufferedInputStream extends FilterInputStream {
     private byte[] buffer;
     private int count;
     private int position;
+    private final BufferPool pool;
+    private StreamMetrics metrics;
+    private int minCapacity;
+    private int maxCapacity;
+    private int fullRefills;
+    private int sparseRefills;
+    private int largestRequest;
+    private int markPosition = -1;
+    private int markLimit;
     private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int ADAPTIVE_STREAK = 4;
 
     /**
      * Takes input stream from which the data should be read.
@@ -29,11 +46,26 @@ public class BufferedInputStream extends FilterInputStream {
      * @throws IllegalArgumentException if capacity <= 0
      */
     public BufferedInputStream(InputStream in, int capacity) {
+        this(in, capacity, null);
+    }
+
+    /**
+     * Takes input stream from which the data should be read, the buffer capacity
+     * and a pool. Borrows the buffer from the pool and gives it back on close().
+     * The pool may round the capacity up to its size class
+     *
+     * @param in       - underlying input stream
+     * @param capacity - buffer capacity
+     * @param pool     - pool of buffers or null to allocate a new buffer
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public BufferedInputStream(InputStream in, int capacity, BufferPool pool) {
         super(in);
         if (capacity <= 0) {
             throw new IllegalArgumentException("Wrong \"capacity\"");
         }
-        buffer = new byte[capacity];
+        this.pool = pool;
+        buffer = pool != null ? pool.acquire(capacity) : new byte[capacity];
         position = 0;
         count = 0;
     }
@@ -50,26 +82,27 @@ public class BufferedInputStream extends FilterInputStream {
     @Override
     public int read() throws IOException {
         checkIfClosed();
-        if (position >= count) {
-            refillBuffer();
-        }
-        if (count < 0) {
+        if (position >= count && refillBuffer() <= 0) {
             return -1;
         }
-        return buffer[position++];
+        return buffer[position++] & 0xFF;
     }
 
 
     /**
-     * Reads data from underlying input stream into the destination byte array
-     * through the buffer invoking read() method in cycle.
+     * Reads data from underlying input stream into the destination byte array.
+     * Bytes already held in the buffer are copied first, then the buffer is refilled
+     * while the underlying stream has data available. If the rest of the request
+     * is not smaller than the buffer and there is no mark the data are read directly
+     * into the destination array without passing through the buffer.
      * Returns number of bytes read.
      *
      * @param bytes        - destination array
      * @param offset       - offset in the destination array
      * @param lengthToRead - number of bytes that should be read
      * @return number of bytes read or -1 if there was no data to read
-     * @throws IOException if gets IOException in read()
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying stream
      * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
      *                                     offset > bytes.length - lengthToRead
      */
@@ -77,44 +110,618 @@ public class BufferedInputStream extends FilterInputStream {
     public int read(byte[] bytes, int offset, int lengthToRead) throws IOException {
         checkIfClosed();
         validateReadParameters(bytes, offset, lengthToRead);
-        if (bytes.length == 0 || lengthToRead == 0) {
+        if (lengthToRead == 0) {
             return 0;
         }
+        if (lengthToRead > largestRequest) {
+            largestRequest = lengthToRead;
+        }
 
-        int readCount = 0;
-        for (int i = offset; i < offset + lengthToRead; i++) {
-            byte val = (byte) this.read();
-            if (val < 0) {
-                return readCount != 0 ? readCount : -1;
+        int readCount = readFromBuffer(bytes, offset, lengthToRead);
+        while (readCount < lengthToRead) {
+            if (readCount > 0 && in.available() <= 0) {
+                break;
+            }
+            int remaining = lengthToRead - readCount;
+            int n;
+            if (remaining >= buffer.length && markPosition < 0) {
+                n = readDirectly(bytes, offset + readCount, remaining);
+            } else if (refillBuffer() > 0) {
+                n = readFromBuffer(bytes, offset + readCount, remaining);
             } else {
-                bytes[i] = val;
+                n = -1;
+            }
+            if (n <= 0) {
+                break;
+            }
+            readCount += n;
+        }
+        return readCount != 0 ? readCount : -1;
+    }
+
+    /**
+     * Writes all the data left in the stream into the output stream.
+     * Bytes held in the buffer are written first, the rest is transferred by the
+     * underlying stream itself without passing through the buffer. A file is
+     * transferred into a file or a channel output stream by FileChannel.transferTo(),
+     * so the data are copied by the kernel
+     *
+     * @param out - output stream into which the data should be written
+     * @return number of bytes transferred
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading or writing
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        checkIfClosed();
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        long transferred = count - position;
+        if (transferred > 0) {
+            out.write(buffer, position, count - position);
+            position = count;
+        }
+        markPosition = -1;
+        WritableByteChannel target = null;
+        if (out instanceof FileOutputStream) {
+            target = ((FileOutputStream) out).getChannel();
+        } else if (out instanceof WritableByteChannel) {
+            target = (WritableByteChannel) out;
+        }
+        long n;
+        if (in instanceof FileInputStream && target != null) {
+            n = transferFile(((FileInputStream) in).getChannel(), target);
+        } else {
+            n = in.transferTo(out);
+        }
+        if (metrics != null) {
+            metrics.recordRead(n);
+        }
+        return transferred + n;
+    }
+
+    /**
+     * Skips bytes held in the buffer first, then skips the rest in the underlying
+     * stream. If there is a mark the rest is read through the buffer to keep it
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed or gets exception
+     *                     while skipping the underlying stream
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkIfClosed();
+        if (n <= 0) {
+            return 0;
+        }
+        long skipped = Math.min(count - position, n);
+        position += (int) skipped;
+        if (skipped < n && markPosition < 0) {
+            return skipped + in.skip(n - skipped);
+        }
+        while (skipped < n && refillBuffer() > 0) {
+            int k = (int) Math.min(count - position, n - skipped);
+            position += k;
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    /**
+     * Returns number of bytes held in the buffer
+     * plus the estimate of the underlying stream
+     *
+     * @return number of bytes that can be read without blocking
+     * @throws IOException if stream is closed or gets exception
+     *                     while querying the underlying stream
+     */
+    @Override
+    public int available() throws IOException {
+        checkIfClosed();
+        long available = (long) (count - position) + in.available();
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Mark is supported
+     *
+     * @return true
+     */
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * Marks the current position. The buffered bytes after the mark are kept,
+     * and the buffer grows up to the read limit if needed, so reset() can return
+     * to the mark until more than readLimit bytes are read after it
+     *
+     * @param readLimit - number of bytes which can be read before the mark becomes invalid
+     */
+    @Override
+    public void mark(int readLimit) {
+        markPosition = position;
+        markLimit = readLimit;
+    }
+
+    /**
+     * Moves the position back to the mark
+     *
+     * @throws IOException if stream is closed, there is no mark
+     *                     or the mark became invalid
+     */
+    @Override
+    public void reset() throws IOException {
+        checkIfClosed();
+        if (markPosition < 0) {
+            throw new IOException("Resetting to invalid mark");
+        }
+        position = markPosition;
+    }
+
+    /**
+     * Turns on collecting of metrics: bytes read from the underlying stream,
+     * refills with their size and time blocked in reading the underlying stream
+     *
+     * @param metrics - metrics of the stream group or null to turn collecting off
+     */
+    public void setMetrics(StreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Turns on adaptive buffer sizing within the indicated bounds.
+     * The buffer is doubled when the underlying stream fills it completely
+     * several refills in a row while the reads are served through the buffer,
+     * and halved when several refills in a row and the reads use less than
+     * a quarter of it. The buffer is replaced only when it is empty
+     *
+     * @param minCapacity - minimal buffer capacity
+     * @param maxCapacity - maximal buffer capacity
+     * @throws IllegalArgumentException if minCapacity <= 0 or maxCapacity < minCapacity
+     */
+    public void setAdaptiveCapacity(int minCapacity, int maxCapacity) {
+        if (minCapacity <= 0 || maxCapacity < minCapacity) {
+            throw new IllegalArgumentException("Wrong \"minCapacity\" and/or \"maxCapacity\"");
+        }
+        this.minCapacity = minCapacity;
+        this.maxCapacity = maxCapacity;
+        fullRefills = 0;
+        sparseRefills = 0;
+        largestRequest = 0;
+    }
+
+    /**
+     * Returns the current buffer capacity
+     *
+     * @return buffer capacity
+     */
+    public int getCapacity() {
+        return buffer != null ? buffer.length : 0;
+    }
+
+    /**
+     * Reads bytes up to the delimiter and skips the delimiter.
+     * The buffer is searched eight bytes at a time. If the record fits into the buffer
+     * the returned buffer is a read-only view of the inner buffer, which is valid only
+     * until the next read from this stream. Records longer than the buffer are collected
+     * across refills into a new array. The last record may end without the delimiter
+     *
+     * @param delimiter - byte which ends a record
+     * @return record without the delimiter or null if there was no data to read
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying stream
+     */
+    public ByteBuffer readUntil(byte delimiter) throws IOException {
+        checkIfClosed();
+        byte[] record = null;
+        int recordLength = 0;
+        int scanned = position;
+        while (true) {
+            int index = ByteScanner.indexOf(buffer, scanned, count, delimiter);
+            if (index >= 0) {
+                return takeRecord(record, recordLength, index, index + 1);
             }
-            readCount++;
+            if (count == buffer.length) {
+                makeRoom();
+            }
+            if (count == buffer.length) {
+                // the record is longer than the buffer
+                record = appendRecord(record, recordLength, 0, count);
+                recordLength += count;
+                position = 0;
+                count = 0;
+            }
+            scanned = count;
+            int n = readIntoBuffer(count);
+            if (n <= 0) {
+                if (record == null && position == count) {
+                    return null;
+                }
+                return takeRecord(record, recordLength, count, count);
+            }
+            count += n;
+        }
+    }
+
+    /**
+     * Reads bytes up to the line feed and skips it. A carriage return before
+     * the line feed is dropped. See {@link #readUntil(byte)} for the validity
+     * of the returned buffer
+     *
+     * @return line without the line terminator or null if there was no data to read
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying stream
+     */
+    public ByteBuffer readLine() throws IOException {
+        ByteBuffer line = readUntil((byte) '\n');
+        if (line != null && line.limit() > 0 && line.get(line.limit() - 1) == '\r') {
+            line.limit(line.limit() - 1);
         }
-        return readCount;
+        return line;
     }
 
     /**
      * Closes the underlying input stream invoking its close() method
-     * and set it to null
+     * and set it to null. Gives the buffer back to the pool if it was borrowed.
+     * Closing already closed stream has no effect
      *
      * @throws IOException if gets IOException in close() method
      */
     @Override
     public void close() throws IOException {
-        in.close();
-        in = null;
+        if (in == null) {
+            releaseBuffer();
+            return;
+        }
+        try {
+            in.close();
+        } finally {
+            in = null;
+            releaseBuffer();
+        }
     }
 
     /**
      * Tries to read the data from the underlying input stream
      * to the buffer and reset the position
      *
+     * @return number of bytes read into the buffer or -1 if end of the underlying stream
+     * @throws IOException if gets exception while reading from the underlying stream
+     */
+    private int refillBuffer() throws IOException {
+        if (maxCapacity > 0 && markPosition < 0 && position == count) {
+            adaptCapacity();
+        }
+        makeRoom();
+        int n = readIntoBuffer(count);
+        if (n > 0) {
+            count += n;
+        }
+        if (maxCapacity > 0) {
+            trackRefill(n);
+        }
+        return n;
+    }
+
+    /**
+     * Moves the bytes which must be kept to the start of the buffer: the unread
+     * bytes, or the bytes from the mark if it is still valid. If the kept bytes
+     * fill the whole buffer it grows up to the read limit of the mark,
+     * the mark is dropped when the buffer has reached it
+     */
+    private void makeRoom() {
+        if (markPosition >= 0 && position - markPosition >= markLimit) {
+            markPosition = -1;
+        }
+        int start = markPosition >= 0 ? markPosition : position;
+        if (start == 0 && count == buffer.length && markPosition >= 0) {
+            if (buffer.length < markLimit) {
+                growBuffer((int) Math.min(2L * buffer.length, markLimit));
+                return;
+            }
+            markPosition = -1;
+            start = position;
+        }
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, count - start);
+            count -= start;
+            position -= start;
+            if (markPosition >= 0) {
+                markPosition = 0;
+            }
+        }
+    }
+
+    /**
+     * Replaces the buffer with a larger one keeping its content
+     *
+     * @param capacity - new buffer capacity
+     */
+    private void growBuffer(int capacity) {
+        byte[] grown = pool != null ? pool.acquire(capacity) : new byte[capacity];
+        System.arraycopy(buffer, 0, grown, 0, count);
+        if (pool != null) {
+            pool.release(buffer);
+        }
+        buffer = grown;
+    }
+
+    /**
+     * Transfers the rest of the file into the channel and moves
+     * the position of the file after the transferred data
+     *
+     * @param source - channel of the underlying file
+     * @param target - channel of the output stream
+     * @return number of bytes transferred
+     * @throws IOException if gets exception while transferring
+     */
+    private static long transferFile(FileChannel source, WritableByteChannel target) throws IOException {
+        long start = source.position();
+        long position = start;
+        long size = source.size();
+        while (position < size) {
+            long n = source.transferTo(position, size - position, target);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+        }
+        source.position(position);
+        return position - start;
+    }
+
+    /**
+     * Called with every block of bytes read from the underlying input stream,
+     * either into the buffer or directly into the destination array of a large read.
+     * Does nothing, subclasses may inspect the bytes but must not change them
+     *
+     * @param bytes  - array with the bytes read
+     * @param offset - offset of the bytes in the array
+     * @param length - number of bytes read
+     */
+    protected void bytesFilled(byte[] bytes, int offset, int length) {
+    }
+
+    /**
+     * Reads the data from the underlying input stream into the free
+     * part of the buffer starting at the indicated offset
+     *
+     * @param offset - offset in the buffer
+     * @return number of bytes read or -1 if end of the underlying stream
      * @throws IOException if gets exception while reading from the underlying stream
      */
-    private void refillBuffer() throws IOException {
-        count = in.read(buffer);
+    private int readIntoBuffer(int offset) throws IOException {
+        int n;
+        if (metrics == null) {
+            n = in.read(buffer, offset, buffer.length - offset);
+        } else {
+            long start = System.nanoTime();
+            n = in.read(buffer, offset, buffer.length - offset);
+            metrics.recordRefill(n, buffer.length - offset, System.nanoTime() - start);
+        }
+        if (n > 0) {
+            bytesFilled(buffer, offset, n);
+        }
+        return n;
+    }
+
+    /**
+     * Makes at least the indicated number of bytes available in the buffer
+     * if the buffer is large enough, moving the unread bytes to its start
+     * and reading more data after them
+     *
+     * @param n - number of bytes needed
+     * @return number of bytes available in the buffer, less than n
+     * at end of the underlying stream or if the buffer is too small
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying stream
+     */
+    int fillAtLeast(int n) throws IOException {
+        checkIfClosed();
+        int available = count - position;
+        if (available >= n || n > buffer.length) {
+            return available;
+        }
+        makeRoom();
+        while (count - position < n && count < buffer.length) {
+            int r = readIntoBuffer(count);
+            if (r <= 0) {
+                break;
+            }
+            count += r;
+        }
+        return count - position;
+    }
+
+    /**
+     * Returns the number of unread bytes in the buffer without reading
+     * the underlying stream
+     *
+     * @return number of bytes buffered, 0 if stream is closed
+     */
+    int bufferedCount() {
+        return in == null ? 0 : count - position;
+    }
+
+    /**
+     * Returns the buffer for direct access from the same package
+     *
+     * @return buffer
+     */
+    byte[] bufferArray() {
+        return buffer;
+    }
+
+    /**
+     * Returns the position of the next unread byte in the buffer
+     *
+     * @return position in the buffer
+     */
+    int bufferPosition() {
+        return position;
+    }
+
+    /**
+     * Marks the indicated number of buffered bytes as read
+     *
+     * @param n - number of bytes read directly from the buffer
+     */
+    void consume(int n) {
+        position += n;
+    }
+
+    /**
+     * Marks the buffered bytes up to the end of the record as read
+     * and returns the record
+     *
+     * @param record       - bytes of the record collected from the previous refills or null
+     * @param recordLength - number of collected bytes
+     * @param end          - index after the last byte of the record in the buffer
+     * @param next         - index of the first byte after the delimiter
+     * @return view of the buffer or the collected record
+     */
+    private ByteBuffer takeRecord(byte[] record, int recordLength, int end, int next) {
+        int start = position;
+        position = next;
+        if (record == null) {
+            return ByteBuffer.wrap(buffer, start, end - start).slice().asReadOnlyBuffer();
+        }
+        record = appendRecord(record, recordLength, start, end - start);
+        return ByteBuffer.wrap(record, 0, recordLength + end - start);
+    }
+
+    /**
+     * Copies the indicated buffered bytes after the collected bytes of the record
+     *
+     * @param record       - bytes of the record collected from the previous refills or null
+     * @param recordLength - number of collected bytes
+     * @param from         - index of the first byte to copy from the buffer
+     * @param n            - number of bytes to copy from the buffer
+     * @return array with the collected bytes
+     * @throws OutOfMemoryError if the record is larger than an array can be
+     */
+    private byte[] appendRecord(byte[] record, int recordLength, int from, int n) {
+        int length = recordLength + n;
+        if (length < 0) {
+            throw new OutOfMemoryError("Record is too large");
+        }
+        if (record == null) {
+            record = new byte[Math.max(length, 2 * buffer.length)];
+        } else if (length > record.length) {
+            record = Arrays.copyOf(record, Math.max(length, record.length * 2 > 0 ? record.length * 2 : length));
+        }
+        System.arraycopy(buffer, from, record, recordLength, n);
+        return record;
+    }
+
+    /**
+     * Counts full and sparse refills in a row. A refill is sparse when both
+     * the bytes read and the largest read request use less than a quarter of the buffer
+     *
+     * @param n - number of bytes read into the buffer
+     */
+    private void trackRefill(int n) {
+        if (n >= buffer.length && largestRequest < buffer.length) {
+            fullRefills++;
+            sparseRefills = 0;
+        } else if (n >= 0 && Math.max(n, largestRequest) < buffer.length / 4) {
+            sparseRefills++;
+            fullRefills = 0;
+        } else {
+            fullRefills = 0;
+            sparseRefills = 0;
+        }
+        largestRequest = 0;
+    }
+
+    /**
+     * Replaces the empty buffer with a larger or a smaller one
+     * if the refills observed ask for it or the buffer is out of bounds.
+     * Must be called only when there are no unread bytes
+     */
+    private void adaptCapacity() {
+        int capacity = buffer.length;
+        if (fullRefills >= ADAPTIVE_STREAK) {
+            capacity = (int) Math.min((long) capacity * 2, maxCapacity);
+        } else if (sparseRefills >= ADAPTIVE_STREAK) {
+            capacity = capacity / 2;
+        }
+        capacity = Math.max(minCapacity, Math.min(maxCapacity, capacity));
+        if (capacity == buffer.length || pool != null && capacity < buffer.length
+                && BufferPool.sizeClassOf(capacity) >= 0
+                && BufferPool.sizeClassOf(capacity) == BufferPool.sizeClassOf(buffer.length)) {
+            // pooled buffers are rounded up to their size class
+            return;
+        }
+        fullRefills = 0;
+        sparseRefills = 0;
+        if (pool != null) {
+            pool.release(buffer);
+            buffer = pool.acquire(capacity);
+        } else {
+            buffer = new byte[capacity];
+        }
         position = 0;
+        count = 0;
+    }
+
+    /**
+     * Reads data from the underlying input stream directly into the destination
+     * array bypassing the buffer
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @return number of bytes read or -1 if end of the underlying stream
+     * @throws IOException if gets exception while reading from the underlying stream
+     */
+    private int readDirectly(byte[] bytes, int offset, int lengthToRead) throws IOException {
+        int n;
+        if (metrics == null) {
+            n = in.read(bytes, offset, lengthToRead);
+        } else {
+            long start = System.nanoTime();
+            n = in.read(bytes, offset, lengthToRead);
+            metrics.recordDirectRead(n, System.nanoTime() - start);
+        }
+        if (n > 0) {
+            bytesFilled(bytes, offset, n);
+        }
+        return n;
+    }
+
+    /**
+     * Gives the buffer back to the pool if it was borrowed
+     */
+    private void releaseBuffer() {
+        if (pool != null && buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+            position = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * Copies bytes left in the buffer into the destination array
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - maximum number of bytes to copy
+     * @return number of bytes copied
+     */
+    private int readFromBuffer(byte[] bytes, int offset, int lengthToRead) {
+        int n = Math.min(count - position, lengthToRead);
+        if (n <= 0) {
+            return 0;
+        }
+        System.arraycopy(buffer, position, bytes, offset, n);
+        position += n;
+        return n;
     }
 
     /**
@@ -1,13 +1,18 @@
 package net.testlab.io;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 
 public class BufferedOuputStream extends FilterOutputStream {
 
 
     private byte[] buffer;
     private int count;
+    private final BufferPool pool;
+    private StreamMetrics metrics;
     private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final byte[] CLOSED_BUFFER = new byte[0];
 
     /**
      * Takes output stream into which the data should be written.
@@ -28,39 +33,56 @@ public class BufferedOuputStream extends FilterOutputStream {
      * @throws IllegalArgumentException if capacity <= 0
      */
     public BufferedOuputStream(OutputStream out, int capacity) {
+        this(out, capacity, null);
+    }
+
+    /**
+     * Takes output stream into which the data should be write, the buffer capacity
+     * and a pool. Borrows the buffer from the pool and gives it back on close().
+     * The pool may round the capacity up to its size class
+     *
+     * @param out      - underlying output stream
+     * @param capacity - buffer capacity
+     * @param pool     - pool of buffers or null to allocate a new buffer
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public BufferedOuputStream(OutputStream out, int capacity, BufferPool pool) {
         super(out);
         if (capacity <= 0) {
             throw new IllegalArgumentException("Wrong \"capacity\"");
         }
-        buffer = new byte[capacity];
+        this.pool = pool;
+        buffer = pool != null ? pool.acquire(capacity) : new byte[capacity];
         count = 0;
     }
 
     /**
      * Writes a byte value into the buffer.
-     * If the buffer space is out - invoke flush() method
+     * If the buffer space is out - writes the buffer into the underlying stream
      *
      * @param b - byte to be write
-     * @throws IOException if gets IOException in flush()
+     * @throws IOException if gets IOException while writing the buffer
      */
     @Override
     public void write(int b) throws IOException {
         // write to stream if buf is full
         if (count >= buffer.length) {
-            flush();
+            flushBuffer();
         }
         // write to buf
         buffer[count++] = (byte) b;
     }
 
     /**
-     * Takes bytes from a byte array and writes all of them into the buffer
-     * invoking write() method in cycle
+     * Takes bytes from a byte array and copies them into the buffer.
+     * If the bytes do not fit into the free space of the buffer - writes the buffer
+     * into the underlying stream first. If the number of bytes is not less than
+     * the buffer capacity - writes them directly into the underlying stream
      *
      * @param bytes         - byte array with bytes to be write
      * @param offset        - offset in the byte array
      * @param lengthToWrite - number of bytes that should be write
-     * @throws IOException if get IOException in write()
+     * @throws IOException if get IOException while writing into the underlying stream
      * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
      *                                  offset > bytes.length - lengthToRead
      */
@@ -73,38 +95,328 @@ public class BufferedOuputStream extends FilterOutputStream {
             return;
         }
 
-        for (int i = offset; i < offset + lengthToWrite; i++) {
-            this.write(bytes[i]);
+        if (lengthToWrite >= buffer.length) {
+            flushBuffer();
+            writeDownstream(bytes, offset, lengthToWrite);
+            return;
+        }
+        if (lengthToWrite > buffer.length - count) {
+            flushBuffer();
+        }
+        System.arraycopy(bytes, offset, buffer, count, lengthToWrite);
+        count += lengthToWrite;
+    }
+
+    /**
+     * Writes the remaining bytes of the byte buffer and moves its position to the limit.
+     * Bytes which fit into the free space of the buffer are copied into it.
+     * If the number of bytes is not less than the buffer capacity - writes them
+     * directly into the underlying stream, with a channel write for a direct
+     * byte buffer if the underlying stream is a file or a gathering channel
+     *
+     * @param src - byte buffer with bytes to be write
+     * @throws IOException if get IOException while writing into the underlying stream
+     */
+    public void write(ByteBuffer src) throws IOException {
+        if (src == null) {
+            throw new NullPointerException("Parameter \"src\" is null");
+        }
+        int lengthToWrite = src.remaining();
+        if (lengthToWrite == 0) {
+            return;
         }
 
+        if (lengthToWrite >= buffer.length) {
+            GatheringByteChannel channel = gatheringChannel();
+            if (src.hasArray()) {
+                flushBuffer();
+                writeDownstream(src.array(), src.arrayOffset() + src.position(), lengthToWrite);
+                src.position(src.limit());
+            } else if (channel != null) {
+                gatherDownstream(channel, new ByteBuffer[]{src}, lengthToWrite);
+            } else {
+                while (src.hasRemaining()) {
+                    ensureFree(1);
+                    copyIntoBuffer(src, Math.min(src.remaining(), buffer.length - count));
+                }
+            }
+            return;
+        }
+        if (lengthToWrite > buffer.length - count) {
+            flushBuffer();
+        }
+        copyIntoBuffer(src, lengthToWrite);
+    }
+
+    /**
+     * Writes the remaining bytes of the byte buffers in order and moves their
+     * positions to the limits. If all of them fit into the free space of the buffer
+     * they are copied into it. If they are not less than the buffer capacity and
+     * the underlying stream is a file or a gathering channel - writes the buffer and
+     * all of them with one gathering write, otherwise writes them one by one
+     *
+     * @param srcs - byte buffers with bytes to be write
+     * @throws IOException if get IOException while writing into the underlying stream
+     */
+    public void write(ByteBuffer[] srcs) throws IOException {
+        if (srcs == null) {
+            throw new NullPointerException("Parameter \"srcs\" is null");
+        }
+        long lengthToWrite = 0;
+        for (ByteBuffer src : srcs) {
+            if (src == null) {
+                throw new NullPointerException("Parameter \"srcs\" contains null");
+            }
+            lengthToWrite += src.remaining();
+        }
+        if (lengthToWrite == 0) {
+            return;
+        }
+
+        if (lengthToWrite <= buffer.length - count) {
+            for (ByteBuffer src : srcs) {
+                copyIntoBuffer(src, src.remaining());
+            }
+            return;
+        }
+        GatheringByteChannel channel = gatheringChannel();
+        if (channel != null && lengthToWrite >= buffer.length) {
+            gatherDownstream(channel, srcs, lengthToWrite);
+            return;
+        }
+        for (ByteBuffer src : srcs) {
+            write(src);
+        }
     }
 
     /**
      * Writes the data from the buffer into the underlying output stream
-     * flush it and reset count
+     * and flushes it
      *
      * @throws IOException if get IOException in write() or flush()
      */
     @Override
     public void flush() throws IOException {
-        checkInnerStreamForNull();
-        out.write(buffer, 0, count);
-        out.flush();
-        count = 0;
+        flushBuffer();
+        if (metrics == null) {
+            out.flush();
+        } else {
+            long start = System.nanoTime();
+            out.flush();
+            metrics.recordFlush(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Turns on collecting of metrics: writes into the underlying stream with their size,
+     * flushes and time blocked in writing and flushing the underlying stream
+     *
+     * @param metrics - metrics of the stream group or null to turn collecting off
+     */
+    public void setMetrics(StreamMetrics metrics) {
+        this.metrics = metrics;
     }
 
 
     /**
      * Closes the underlying input stream invoking its close() method
-     * and flush data
+     * and flush data. Gives the buffer back to the pool if it was borrowed.
+     * Closing already closed stream has no effect
      *
      * @throws IOException if get IOException in close()
      */
     @Override
     public void close() throws IOException {
+        if (buffer == CLOSED_BUFFER) {
+            return;
+        }
         checkInnerStreamForNull();
-        flush();
-        out.close();
+        try {
+            flush();
+        } finally {
+            try {
+                out.close();
+            } finally {
+                if (pool != null) {
+                    pool.release(buffer);
+                }
+                buffer = CLOSED_BUFFER;
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * Writes the data from the buffer into the underlying output stream
+     * and reset count. Does not flush the underlying stream
+     *
+     * @throws IOException if get IOException in write()
+     */
+    private void flushBuffer() throws IOException {
+        checkIfClosed();
+        if (count > 0) {
+            writeDownstream(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Copies bytes from the byte buffer into the free space of the buffer
+     *
+     * @param src - byte buffer with bytes to be write
+     * @param n   - number of bytes to copy
+     */
+    private void copyIntoBuffer(ByteBuffer src, int n) {
+        src.get(buffer, count, n);
+        count += n;
+    }
+
+    /**
+     * Returns the channel of the underlying stream which can write
+     * several byte buffers at a time
+     *
+     * @return channel or null if the underlying stream is not a file or a gathering channel
+     */
+    private GatheringByteChannel gatheringChannel() {
+        if (out instanceof FileOutputStream) {
+            return ((FileOutputStream) out).getChannel();
+        }
+        if (out instanceof GatheringByteChannel) {
+            return (GatheringByteChannel) out;
+        }
+        return null;
+    }
+
+    /**
+     * Writes the data from the buffer followed by the byte buffers into
+     * the channel with gathering writes and resets count. The hooks get
+     * the bytes only after all of them are written. The channel must be
+     * in blocking mode
+     *
+     * @param channel       - channel of the underlying stream
+     * @param srcs          - byte buffers with bytes to be write
+     * @param lengthToWrite - number of bytes remaining in the byte buffers
+     * @throws IOException if get IOException in write() or the channel writes nothing
+     */
+    private void gatherDownstream(GatheringByteChannel channel, ByteBuffer[] srcs, long lengthToWrite)
+            throws IOException {
+        checkIfClosed();
+        ByteBuffer[] all = new ByteBuffer[srcs.length + 1];
+        ByteBuffer[] drained = new ByteBuffer[srcs.length];
+        all[0] = ByteBuffer.wrap(buffer, 0, count);
+        for (int i = 0; i < srcs.length; i++) {
+            all[i + 1] = srcs[i];
+            drained[i] = srcs[i].duplicate();
+        }
+        long total = count + lengthToWrite;
+        long start = metrics != null ? System.nanoTime() : 0;
+        for (long written = 0; written < total; ) {
+            long n = channel.write(all);
+            if (n <= 0) {
+                throw new IOException("Channel has written nothing, it must be in blocking mode");
+            }
+            written += n;
+        }
+        if (metrics != null) {
+            metrics.recordDownstreamWrite(total, System.nanoTime() - start);
+        }
+        bytesDrained(buffer, 0, count);
+        for (ByteBuffer src : drained) {
+            bytesDrained(src);
+        }
+        count = 0;
+    }
+
+    /**
+     * Makes at least the indicated number of bytes free in the buffer
+     * writing the buffer into the underlying stream if needed
+     *
+     * @param n - number of bytes needed
+     * @return number of free bytes in the buffer, less than n if the buffer is too small
+     * @throws IOException if get IOException in write()
+     */
+    int ensureFree(int n) throws IOException {
+        if (buffer.length - count < n) {
+            flushBuffer();
+        }
+        return buffer.length - count;
+    }
+
+    /**
+     * Returns the number of free bytes in the buffer without writing it
+     *
+     * @return number of free bytes in the buffer
+     */
+    int freeCount() {
+        return buffer.length - count;
+    }
+
+    /**
+     * Returns the buffer for direct access from the same package
+     *
+     * @return buffer
+     */
+    byte[] bufferArray() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of bytes written into the buffer
+     *
+     * @return position of the first free byte in the buffer
+     */
+    int bufferCount() {
+        return count;
+    }
+
+    /**
+     * Marks the indicated number of bytes written directly into the buffer as buffered
+     *
+     * @param n - number of bytes written
+     */
+    void commit(int n) {
+        count += n;
+    }
+
+    /**
+     * Called with every block of bytes after it is written into the underlying
+     * output stream, either from the buffer or directly from the array of a large write.
+     * Does nothing, subclasses may inspect the bytes but must not change them
+     *
+     * @param bytes  - array with the written bytes
+     * @param offset - offset of the bytes in the array
+     * @param length - number of bytes written
+     */
+    protected void bytesDrained(byte[] bytes, int offset, int length) {
+    }
+
+    /**
+     * Called with every byte buffer after it is written into the underlying
+     * channel by a gathering write. Does nothing, subclasses may read
+     * the byte buffer, which is a duplicate of the written one
+     *
+     * @param bytes - byte buffer with the written bytes
+     */
+    protected void bytesDrained(ByteBuffer bytes) {
+    }
+
+    /**
+     * Writes bytes into the underlying output stream
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if get IOException in write()
+     */
+    private void writeDownstream(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        if (metrics == null) {
+            out.write(bytes, offset, lengthToWrite);
+        } else {
+            long start = System.nanoTime();
+            out.write(bytes, offset, lengthToWrite);
+            metrics.recordDownstreamWrite(lengthToWrite, System.nanoTime() - start);
+        }
+        bytesDrained(bytes, offset, lengthToWrite);
     }
 
     /**
@@ -125,6 +437,18 @@ public class BufferedOuputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        checkInnerStreamForNull();
+        if (buffer == CLOSED_BUFFER) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
     /**
      * Checks if the underlying stream is not null
      */
@@ -2,12 +2,15 @@ package net.testlab.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 public class ByteArrayInputStream extends InputStream {
 
     private byte[] buffer;
     private int count;
     private int position;
+    private StreamMetrics metrics;
 
     /**
      * Takes a byte array from which the data will be read.
@@ -44,12 +47,14 @@ public class ByteArrayInputStream extends InputStream {
         if (position >= count) {
             return -1;
         }
-        return buffer[position++];
+        if (metrics != null) {
+            metrics.recordRead(1);
+        }
+        return buffer[position++] & 0xFF;
     }
 
     /**
-     * Reads data from the buffer into the destination byte array
-     * invoking read() method in cycle.
+     * Copies data from the buffer into the destination byte array.
      * Returns number of bytes read.
      *
      * @param bytes        destination array
@@ -63,20 +68,120 @@ public class ByteArrayInputStream extends InputStream {
         if (bytes.length == 0 || lengthToRead == 0) {
             return 0;
         }
+        if (position >= count) {
+            return -1;
+        }
 
-        int readCount = 0;
-        for (int i = offset; i < offset + lengthToRead; i++) {
-            byte val = (byte) this.read();
-            if (val < 0) {
-                return readCount != 0 ? readCount : -1;
-            } else {
-                bytes[i] = val;
-            }
-            readCount++;
+        int readCount = Math.min(count - position, lengthToRead);
+        System.arraycopy(buffer, position, bytes, offset, readCount);
+        position += readCount;
+        if (metrics != null) {
+            metrics.recordRead(readCount);
         }
         return readCount;
     }
 
+    /**
+     * Reads all remaining data from the buffer into a new array
+     *
+     * @return byte array with the data read
+     */
+    @Override
+    public byte[] readAllBytes() {
+        byte[] result = Arrays.copyOfRange(buffer, position, Math.max(position, count));
+        position = Math.max(position, count);
+        if (metrics != null) {
+            metrics.recordRead(result.length);
+        }
+        return result;
+    }
+
+    /**
+     * Skips the indicated number of bytes moving position in the buffer.
+     * Cannot skip bytes at and after count number
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     */
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(count - position, n));
+        position += (int) skipped;
+        return skipped;
+    }
+
+    /**
+     * Returns number of bytes left to read
+     *
+     * @return number of bytes that can be read
+     */
+    @Override
+    public int available() {
+        return Math.max(0, count - position);
+    }
+
+    /**
+     * Writes all remaining data from the buffer into the output stream
+     * in one write
+     *
+     * @param out - output stream into which the data should be written
+     * @return number of bytes transferred
+     * @throws IOException if gets IOException while writing into the stream
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        int length = available();
+        if (length > 0) {
+            out.write(buffer, position, length);
+            position += length;
+            if (metrics != null) {
+                metrics.recordRead(length);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Turns on collecting of metrics: bytes read from the buffer
+     *
+     * @param metrics - metrics of the stream group or null to turn collecting off
+     */
+    public void setMetrics(StreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the buffer for direct access from the same package
+     *
+     * @return buffer
+     */
+    byte[] bufferArray() {
+        return buffer;
+    }
+
+    /**
+     * Returns the position of the next unread byte
+     *
+     * @return position in the buffer
+     */
+    int bufferPosition() {
+        return position;
+    }
+
+    /**
+     * Marks the indicated number of bytes as read
+     *
+     * @param n - number of bytes read directly from the buffer
+     */
+    void consume(int n) {
+        position += n;
+        if (metrics != null) {
+            metrics.recordRead(n);
+        }
+    }
 
     /**
      * Has no effect
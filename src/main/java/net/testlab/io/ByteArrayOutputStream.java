@@ -1,5 +1,6 @@
 package net.testlab.io;
 
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
 
@@ -7,6 +8,7 @@ public class ByteArrayOutputStream extends OutputStream {
 
     private byte[] buffer;
     private int count;
+    private StreamMetrics metrics;
     private static final int INITIAL_CAPACITY = 32;
 
     /**
@@ -40,20 +42,17 @@ public class ByteArrayOutputStream extends OutputStream {
     @Override
     public void write(int b) {
         // extending buf if out of range
-        if (count >= buffer.length) {
-            byte[] temp = buffer;
-            buffer = new byte[buffer.length * 2];
-            for (int i = 0; i < temp.length; i++) {
-                buffer[i] = temp[i];
-            }
-        }
+        ensureCapacity(count + 1);
         // write to buf
         buffer[count++] = (byte) b;
+        if (metrics != null) {
+            metrics.recordWrite(1);
+        }
     }
 
     /**
-     * Takes bytes from a byte array and writes all of them into
-     * the inner byte array invoking write() method in cycle.
+     * Takes bytes from a byte array and copies all of them into
+     * the inner byte array extending it if needed.
      *
      * @param bytes         - byte array with bytes to be write
      * @param offset        - offset in the byte array
@@ -63,12 +62,75 @@ public class ByteArrayOutputStream extends OutputStream {
     public void write(byte[] bytes, int offset, int lengthToWrite) {
 
         validateWriteParameters(bytes, offset, lengthToWrite);
-        for (int i = offset; i < offset + lengthToWrite; i++) {
-            this.write(bytes[i]);
+        ensureCapacity(count + lengthToWrite);
+        System.arraycopy(bytes, offset, buffer, count, lengthToWrite);
+        count += lengthToWrite;
+        if (metrics != null) {
+            metrics.recordWrite(lengthToWrite);
         }
 
     }
 
+    /**
+     * Writes all the data written into the inner byte array
+     * into the indicated output stream
+     *
+     * @param out - output stream into which the data should be written
+     * @throws IOException if gets IOException while writing into the stream
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    /**
+     * Returns the number of bytes written
+     *
+     * @return number of bytes written
+     */
+    public int size() {
+        return count;
+    }
+
+
+    /**
+     * Turns on collecting of metrics: bytes written into the inner byte array
+     *
+     * @param metrics - metrics of the stream group or null to turn collecting off
+     */
+    public void setMetrics(StreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Makes room for at least the indicated number of bytes
+     * extending the inner byte array if needed
+     *
+     * @param n - number of bytes needed
+     */
+    void reserve(int n) {
+        ensureCapacity(count + n);
+    }
+
+    /**
+     * Returns the inner byte array for direct access from the same package
+     *
+     * @return inner byte array
+     */
+    byte[] bufferArray() {
+        return buffer;
+    }
+
+    /**
+     * Marks the indicated number of bytes written directly into the inner array as written
+     *
+     * @param n - number of bytes written
+     */
+    void commit(int n) {
+        count += n;
+        if (metrics != null) {
+            metrics.recordWrite(n);
+        }
+    }
 
     /**
      * Has no effect
@@ -87,6 +149,24 @@ public class ByteArrayOutputStream extends OutputStream {
         return newBuf;
     }
 
+    /**
+     * Extends the inner byte array at least twice if it can not hold
+     * the indicated number of bytes
+     *
+     * @param minCapacity - required capacity
+     * @throws OutOfMemoryError if required capacity overflows int
+     */
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Required capacity is too large");
+        }
+        if (minCapacity <= buffer.length) {
+            return;
+        }
+        // doubled length may overflow, then the required capacity is taken
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, minCapacity));
+    }
+
     /**
      * Check parameters received for validity
      *
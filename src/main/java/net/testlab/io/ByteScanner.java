@@ -0,0 +1,48 @@
+package net.testlab.io;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+final class ByteScanner {
+
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private ByteScanner() {
+    }
+
+    /**
+     * Finds the first occurrence of the value in the range of the array.
+     * Compares eight bytes at a time: after xor with the repeated value the matching
+     * bytes are zero, and the lowest zero byte of a word is found with the
+     * (x - 0x01..01) & ~x & 0x80..80 test. Only bytes above a real zero byte
+     * can be reported falsely, so the lowest reported byte is always a match
+     *
+     * @param array - array to search
+     * @param from  - index of the first byte to search
+     * @param to    - index after the last byte to search
+     * @param value - byte to find
+     * @return index of the byte or -1 if there is no such byte in the range
+     */
+    static int indexOf(byte[] array, int from, int to, byte value) {
+        long pattern = (value & 0xFFL) * ONES;
+        int i = from;
+        for (int last = to - Long.BYTES; i <= last; i += Long.BYTES) {
+            long x = (long) LONG_VIEW.get(array, i) ^ pattern;
+            long found = (x - ONES) & ~x & HIGH_BITS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,130 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+public class ChecksumInputStream extends BufferedInputStream {
+
+    private final Checksum checksum;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Takes input stream from which the data should be read.
+     * Computes CRC32C of the data
+     *
+     * @param in - underlying input stream
+     */
+    public ChecksumInputStream(InputStream in) {
+        this(in, new CRC32C());
+    }
+
+    /**
+     * Takes input stream from which the data should be read
+     * and the checksum which should be updated with the data
+     *
+     * @param in       - underlying input stream
+     * @param checksum - checksum, e.g. CRC32C or Adler32
+     */
+    public ChecksumInputStream(InputStream in, Checksum checksum) {
+        this(in, INITIAL_CAPACITY, checksum);
+    }
+
+    /**
+     * Takes input stream from which the data should be read, the buffer capacity
+     * and the checksum which should be updated with the data. The checksum is
+     * updated once per block read from the underlying stream, not per read call,
+     * so it covers the bytes already read into the buffer
+     *
+     * @param in       - underlying input stream
+     * @param capacity - buffer capacity
+     * @param checksum - checksum, e.g. CRC32C or Adler32
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public ChecksumInputStream(InputStream in, int capacity, Checksum checksum) {
+        super(in, capacity);
+        if (checksum == null) {
+            throw new NullPointerException("Parameter \"checksum\" is null");
+        }
+        this.checksum = checksum;
+    }
+
+    /**
+     * Returns the checksum updated with the data read from the underlying stream
+     *
+     * @return checksum
+     */
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Returns the current value of the checksum. At the end of the stream
+     * it is the checksum of the whole data
+     *
+     * @return checksum value
+     */
+    public long getValue() {
+        return checksum.getValue();
+    }
+
+    /**
+     * Writes all the data left in the stream into the output stream through
+     * the buffer, so the checksum is updated with every block
+     *
+     * @param out - output stream into which the data should be written
+     * @return number of bytes transferred
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading or writing
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        long transferred = 0;
+        int n;
+        while ((n = fillAtLeast(1)) > 0) {
+            out.write(bufferArray(), bufferPosition(), n);
+            consume(n);
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Skips bytes reading them through the buffer,
+     * so the checksum is updated with the skipped bytes too
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed or gets exception
+     *                     while reading the underlying stream
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        int available;
+        while (skipped < n && (available = fillAtLeast(1)) > 0) {
+            int k = (int) Math.min(available, n - skipped);
+            consume(k);
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    /**
+     * Updates the checksum with the block read from the underlying stream
+     *
+     * @param bytes  - array with the bytes read
+     * @param offset - offset of the bytes in the array
+     * @param length - number of bytes read
+     */
+    @Override
+    protected void bytesFilled(byte[] bytes, int offset, int length) {
+        checksum.update(bytes, offset, length);
+    }
+
+}
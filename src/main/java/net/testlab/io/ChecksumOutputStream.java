@@ -0,0 +1,94 @@
+package net.testlab.io;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+public class ChecksumOutputStream extends BufferedOuputStream {
+
+    private final Checksum checksum;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Takes output stream into which the data should be written.
+     * Computes CRC32C of the data
+     *
+     * @param out - underlying output stream
+     */
+    public ChecksumOutputStream(OutputStream out) {
+        this(out, new CRC32C());
+    }
+
+    /**
+     * Takes output stream into which the data should be written
+     * and the checksum which should be updated with the data
+     *
+     * @param out      - underlying output stream
+     * @param checksum - checksum, e.g. CRC32C or Adler32
+     */
+    public ChecksumOutputStream(OutputStream out, Checksum checksum) {
+        this(out, INITIAL_CAPACITY, checksum);
+    }
+
+    /**
+     * Takes output stream into which the data should be written, the buffer capacity
+     * and the checksum which should be updated with the data. The checksum is
+     * updated once per block written into the underlying stream, not per write call,
+     * so it covers the bytes still held in the buffer only after flush()
+     *
+     * @param out      - underlying output stream
+     * @param capacity - buffer capacity
+     * @param checksum - checksum, e.g. CRC32C or Adler32
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public ChecksumOutputStream(OutputStream out, int capacity, Checksum checksum) {
+        super(out, capacity);
+        if (checksum == null) {
+            throw new NullPointerException("Parameter \"checksum\" is null");
+        }
+        this.checksum = checksum;
+    }
+
+    /**
+     * Returns the checksum updated with the data written into the underlying stream
+     *
+     * @return checksum
+     */
+    public Checksum getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Returns the current value of the checksum. After flush() or close()
+     * it is the checksum of the whole data written
+     *
+     * @return checksum value
+     */
+    public long getValue() {
+        return checksum.getValue();
+    }
+
+    /**
+     * Updates the checksum with the block written into the underlying stream
+     *
+     * @param bytes  - array with the written bytes
+     * @param offset - offset of the bytes in the array
+     * @param length - number of bytes written
+     */
+    @Override
+    protected void bytesDrained(byte[] bytes, int offset, int length) {
+        checksum.update(bytes, offset, length);
+    }
+
+    /**
+     * Updates the checksum with the byte buffer written into the underlying channel
+     *
+     * @param bytes - byte buffer with the written bytes
+     */
+    @Override
+    protected void bytesDrained(ByteBuffer bytes) {
+        checksum.update(bytes);
+    }
+
+}
@@ -0,0 +1,120 @@
+package net.testlab.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public final class CodecPool {
+
+    private static final CodecPool SHARED = new CodecPool(16);
+    private static final int LEVELS = Deflater.BEST_COMPRESSION - Deflater.DEFAULT_COMPRESSION + 1;
+
+    private final ArrayBlockingQueue<Deflater>[] freeDeflaters;
+    private final ArrayBlockingQueue<Inflater>[] freeInflaters;
+
+    /**
+     * Takes the maximum number of free codecs kept for every
+     * compression level and format. Codecs which do not fit are ended
+     *
+     * @param maxCodecsPerKind - number of free codecs kept per level and format
+     * @throws IllegalArgumentException if maxCodecsPerKind <= 0
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public CodecPool(int maxCodecsPerKind) {
+        if (maxCodecsPerKind <= 0) {
+            throw new IllegalArgumentException("Wrong \"maxCodecsPerKind\"");
+        }
+        freeDeflaters = new ArrayBlockingQueue[2 * LEVELS];
+        for (int i = 0; i < freeDeflaters.length; i++) {
+            freeDeflaters[i] = new ArrayBlockingQueue<>(maxCodecsPerKind);
+        }
+        freeInflaters = new ArrayBlockingQueue[2];
+        for (int i = 0; i < freeInflaters.length; i++) {
+            freeInflaters[i] = new ArrayBlockingQueue<>(maxCodecsPerKind);
+        }
+    }
+
+    /**
+     * Returns the pool used by the compressing streams by default
+     *
+     * @return shared pool
+     */
+    public static CodecPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a deflater of the indicated level in its initial state
+     *
+     * @param level  - compression level from -1 (default) to 9
+     * @param nowrap - true for raw deflate data without the zlib header and checksum
+     * @return deflater
+     * @throws IllegalArgumentException if level is out of range
+     */
+    public Deflater acquireDeflater(int level, boolean nowrap) {
+        Deflater deflater = freeDeflaters[deflaterKind(level, nowrap)].poll();
+        return deflater != null ? deflater : new Deflater(level, nowrap);
+    }
+
+    /**
+     * Resets the deflater and keeps it for the next acquisition.
+     * The deflater must not be used after that
+     *
+     * @param deflater - deflater acquired from this pool
+     * @param level    - compression level it was acquired with
+     * @param nowrap   - format it was acquired with
+     */
+    public void releaseDeflater(Deflater deflater, int level, boolean nowrap) {
+        if (deflater == null) {
+            throw new NullPointerException("Parameter \"deflater\" is null");
+        }
+        deflater.reset();
+        if (!freeDeflaters[deflaterKind(level, nowrap)].offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns an inflater in its initial state
+     *
+     * @param nowrap - true for raw deflate data without the zlib header and checksum
+     * @return inflater
+     */
+    public Inflater acquireInflater(boolean nowrap) {
+        Inflater inflater = freeInflaters[nowrap ? 1 : 0].poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    /**
+     * Resets the inflater and keeps it for the next acquisition.
+     * The inflater must not be used after that
+     *
+     * @param inflater - inflater acquired from this pool
+     * @param nowrap   - format it was acquired with
+     */
+    public void releaseInflater(Inflater inflater, boolean nowrap) {
+        if (inflater == null) {
+            throw new NullPointerException("Parameter \"inflater\" is null");
+        }
+        inflater.reset();
+        if (!freeInflaters[nowrap ? 1 : 0].offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns index of the queue of deflaters
+     *
+     * @param level  - compression level
+     * @param nowrap - format
+     * @return queue index
+     * @throws IllegalArgumentException if level is out of range
+     */
+    private static int deflaterKind(int level, boolean nowrap) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Wrong \"level\"");
+        }
+        return (level - Deflater.DEFAULT_COMPRESSION) + (nowrap ? LEVELS : 0);
+    }
+
+}
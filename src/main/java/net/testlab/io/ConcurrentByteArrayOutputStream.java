@@ -0,0 +1,253 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class ConcurrentByteArrayOutputStream extends OutputStream {
+
+    private final AtomicReferenceArray<byte[]> segments;
+    private final ConcurrentHashMap<Long, Long> completed = new ConcurrentHashMap<>();
+    private final int segmentSize;
+    private final long capacity;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Takes the maximum number of bytes which can be written.
+     * Keeps written data in segments of default size
+     *
+     * @param capacity - maximum number of bytes
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public ConcurrentByteArrayOutputStream(long capacity) {
+        this(capacity, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Takes the maximum number of bytes which can be written and the segment size.
+     * Many threads can write at the same time: every write reserves its range with
+     * a CAS on the write cursor and copies its bytes in parallel with the others,
+     * so bytes of one write call are never interleaved with bytes of another one.
+     * Writers never wait for each other: a range copied before the earlier ones
+     * is left in a map of completed ranges, and the writer which closes the gap
+     * moves the commit watermark over it. Readers see the data up to the watermark.
+     * Segments are allocated when a write reaches them first
+     *
+     * @param capacity    - maximum number of bytes
+     * @param segmentSize - size of every segment
+     * @throws IllegalArgumentException if capacity <= 0, segmentSize <= 0
+     *                                  or capacity needs too many segments
+     */
+    public ConcurrentByteArrayOutputStream(long capacity, int segmentSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        if (segmentSize <= 0 || (capacity - 1) / segmentSize >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Wrong \"segmentSize\"");
+        }
+        this.capacity = capacity;
+        this.segmentSize = segmentSize;
+        this.segments = new AtomicReferenceArray<>((int) ((capacity - 1) / segmentSize + 1));
+    }
+
+    /**
+     * Writes a byte value at the next free position
+     *
+     * @param b - byte to be write
+     * @throws IOException if the capacity is exceeded
+     */
+    @Override
+    public void write(int b) throws IOException {
+        long start = reserve(1);
+        segment(start)[(int) (start % segmentSize)] = (byte) b;
+        commit(start, 1);
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the reserved range.
+     * The written bytes are visible to the readers as soon as all earlier
+     * reserved ranges are copied too. A write which fails after the reservation
+     * leaves a gap, the readers do not see the data after it
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if the capacity is exceeded
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        if (lengthToWrite == 0) {
+            return;
+        }
+        long start = reserve(lengthToWrite);
+        long position = start;
+        int end = offset + lengthToWrite;
+        while (offset < end) {
+            int segmentOffset = (int) (position % segmentSize);
+            int n = Math.min(segmentSize - segmentOffset, end - offset);
+            System.arraycopy(bytes, offset, segment(position), segmentOffset, n);
+            position += n;
+            offset += n;
+        }
+        commit(start, lengthToWrite);
+    }
+
+    /**
+     * Writes the committed data into the indicated output stream
+     * segment by segment without joining them
+     *
+     * @param out - output stream into which the data should be written
+     * @throws IOException if gets IOException while writing into the stream
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        long size = size();
+        for (int i = 0; (long) i * segmentSize < size; i++) {
+            out.write(segments.get(i), 0, (int) Math.min(segmentSize, size - (long) i * segmentSize));
+        }
+    }
+
+    /**
+     * Returns the number of committed bytes: all bytes of the writes
+     * which have returned, up to the first range not copied yet
+     *
+     * @return number of bytes committed
+     */
+    public long size() {
+        return committed.get();
+    }
+
+    /**
+     * Returns the maximum number of bytes which can be written
+     *
+     * @return capacity
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Has no effect
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns a snapshot of the committed data joined into one array.
+     * Writes in progress are not included
+     *
+     * @return bytes array of data committed
+     * @throws IllegalStateException if the data committed do not fit into an array
+     */
+    public byte[] toByteArray() {
+        long size = size();
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Size " + size + " is too large for an array");
+        }
+        byte[] newBuf = new byte[(int) size];
+        for (long position = 0; position < size; position += segmentSize) {
+            System.arraycopy(segments.get((int) (position / segmentSize)), 0, newBuf, (int) position,
+                    (int) Math.min(segmentSize, size - position));
+        }
+        return newBuf;
+    }
+
+    /**
+     * Moves the write cursor over the indicated number of bytes with a CAS
+     *
+     * @param n - number of bytes to reserve
+     * @return position of the reserved range
+     * @throws IOException if the capacity is exceeded
+     */
+    private long reserve(int n) throws IOException {
+        long start;
+        do {
+            start = reserved.get();
+            if (start > capacity - n) {
+                throw new IOException("Capacity " + capacity + " is exceeded");
+            }
+        } while (!reserved.compareAndSet(start, start + n));
+        return start;
+    }
+
+    /**
+     * Returns the segment containing the position allocating it if needed
+     *
+     * @param position - position in the stream
+     * @return segment
+     */
+    private byte[] segment(long position) {
+        int index = (int) (position / segmentSize);
+        byte[] segment = segments.get(index);
+        if (segment == null) {
+            segment = allocateSegment();
+            if (!segments.compareAndSet(index, null, segment)) {
+                segment = segments.get(index);
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Allocates a new segment
+     *
+     * @return segment
+     */
+    byte[] allocateSegment() {
+        return new byte[segmentSize];
+    }
+
+    /**
+     * Moves the commit watermark after the range if all earlier ranges are
+     * committed, otherwise leaves the range for the writer which closes the gap
+     *
+     * @param start - position of the range
+     * @param n     - length of the range
+     */
+    private void commit(long start, int n) {
+        long end = start + n;
+        if (!committed.compareAndSet(start, end)) {
+            completed.put(start, end);
+            // the earlier ranges may have been committed before the put,
+            // then the range is taken back unless another writer has taken it
+            if (committed.get() != start || completed.remove(start) == null) {
+                return;
+            }
+            committed.set(end);
+        }
+        while (true) {
+            long mark = committed.get();
+            Long next = completed.remove(mark);
+            if (next == null) {
+                return;
+            }
+            // only the writer which has removed the range can move the watermark from it
+            committed.set(next);
+        }
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+}
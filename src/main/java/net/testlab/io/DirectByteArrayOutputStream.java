@@ -0,0 +1,286 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DirectByteArrayOutputStream extends OutputStream {
+
+    private static final AtomicLong RESERVED = new AtomicLong();
+    private static volatile long reservationLimit = Long.MAX_VALUE;
+
+    private List<ByteBuffer> chunks;
+    private ByteBuffer current;
+    private final int chunkSize;
+    private long size;
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Creates a stream which keeps written data in direct
+     * memory chunks of default size
+     */
+    public DirectByteArrayOutputStream() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Takes chunk size. Creates a stream which keeps written data outside
+     * of the heap in a list of direct byte buffers of the indicated size.
+     * Every chunk is counted against the global reservation limit until
+     * the stream is closed
+     *
+     * @param chunkSize - size of every chunk
+     * @throws IllegalArgumentException if chunkSize <= 0
+     */
+    public DirectByteArrayOutputStream(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Wrong \"chunkSize\"");
+        }
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayList<>();
+    }
+
+    /**
+     * Sets the maximum number of direct memory bytes which all streams
+     * of this class can hold at a time
+     *
+     * @param limit - maximum number of reserved bytes
+     * @throws IllegalArgumentException if limit < 0
+     */
+    public static void setReservationLimit(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Wrong \"limit\"");
+        }
+        reservationLimit = limit;
+    }
+
+    /**
+     * Returns the maximum number of direct memory bytes which all streams
+     * of this class can hold at a time
+     *
+     * @return maximum number of reserved bytes
+     */
+    public static long getReservationLimit() {
+        return reservationLimit;
+    }
+
+    /**
+     * Returns the number of direct memory bytes held by all open streams of this class
+     *
+     * @return number of reserved bytes
+     */
+    public static long getReservedBytes() {
+        return RESERVED.get();
+    }
+
+    /**
+     * Writes a byte value into the last chunk.
+     * If the chunk is full - appends a new one
+     *
+     * @param b - byte to be write
+     * @throws IOException if stream is closed or the reservation limit is reached
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkIfClosed();
+        if (current == null || !current.hasRemaining()) {
+            appendChunk();
+        }
+        current.put((byte) b);
+        size++;
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the chunks
+     * appending new chunks if needed
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if stream is closed or the reservation limit is reached
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        checkIfClosed();
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        while (lengthToWrite > 0) {
+            if (current == null || !current.hasRemaining()) {
+                appendChunk();
+            }
+            int n = Math.min(current.remaining(), lengthToWrite);
+            current.put(bytes, offset, n);
+            size += n;
+            offset += n;
+            lengthToWrite -= n;
+        }
+    }
+
+    /**
+     * Copies the remaining bytes of the byte buffer into the chunks
+     * appending new chunks if needed and moves its position to the limit
+     *
+     * @param src - byte buffer with bytes to be write
+     * @throws IOException if stream is closed or the reservation limit is reached
+     */
+    public void write(ByteBuffer src) throws IOException {
+        checkIfClosed();
+        if (src == null) {
+            throw new NullPointerException("Parameter \"src\" is null");
+        }
+        int limit = src.limit();
+        while (src.hasRemaining()) {
+            if (current == null || !current.hasRemaining()) {
+                appendChunk();
+            }
+            int n = Math.min(current.remaining(), src.remaining());
+            src.limit(src.position() + n);
+            current.put(src);
+            src.limit(limit);
+            size += n;
+        }
+    }
+
+    /**
+     * Writes all the data into the channel chunk by chunk,
+     * so the data are not copied through the heap.
+     * The channel must be in blocking mode
+     *
+     * @param channel - channel into which the data should be written
+     * @throws IOException if stream is closed, the channel writes nothing
+     *                     or gets IOException while writing
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        checkIfClosed();
+        if (channel == null) {
+            throw new NullPointerException("Parameter \"channel\" is null");
+        }
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer data = chunk.duplicate().flip();
+            while (data.hasRemaining()) {
+                if (channel.write(data) <= 0) {
+                    throw new IOException("Channel has written nothing, it must be in blocking mode");
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all the data into the output stream
+     *
+     * @param out - output stream into which the data should be written
+     * @throws IOException if stream is closed or gets IOException while writing
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        writeTo(Channels.newChannel(out));
+    }
+
+    /**
+     * Returns the number of bytes written. Can exceed Integer.MAX_VALUE
+     *
+     * @return number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the data written copied into one heap array
+     *
+     * @return bytes array of data written
+     * @throws IOException           if stream is closed
+     * @throws IllegalStateException if the data written do not fit into an array
+     */
+    public byte[] toByteArray() throws IOException {
+        checkIfClosed();
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Size " + size + " is too large for an array");
+        }
+        byte[] newBuf = new byte[(int) size];
+        int position = 0;
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer data = chunk.duplicate().flip();
+            int n = data.remaining();
+            data.get(newBuf, position, n);
+            position += n;
+        }
+        return newBuf;
+    }
+
+    /**
+     * Drops the chunks and gives their bytes back to the global reservation.
+     * The direct memory itself is freed when the chunks are collected.
+     * Closing already closed stream has no effect
+     */
+    @Override
+    public void close() {
+        if (chunks == null) {
+            return;
+        }
+        RESERVED.addAndGet(-(long) chunks.size() * chunkSize);
+        chunks = null;
+        current = null;
+        size = 0;
+    }
+
+    /**
+     * Reserves the bytes of a new chunk against the global limit,
+     * then allocates it and makes it current
+     *
+     * @throws IOException if the reservation limit is reached
+     */
+    private void appendChunk() throws IOException {
+        long reserved;
+        do {
+            reserved = RESERVED.get();
+            if (reserved > reservationLimit - chunkSize) {
+                throw new IOException("Direct memory limit " + reservationLimit + " is reached");
+            }
+        } while (!RESERVED.compareAndSet(reserved, reserved + chunkSize));
+        try {
+            current = ByteBuffer.allocateDirect(chunkSize);
+        } catch (OutOfMemoryError e) {
+            RESERVED.addAndGet(-chunkSize);
+            throw e;
+        }
+        chunks.add(current);
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (chunks == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
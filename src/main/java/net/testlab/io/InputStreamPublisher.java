@@ -0,0 +1,249 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InputStreamPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final BufferedInputStream in;
+    private final Executor executor;
+    private final int chunkSize;
+    private final BufferPool pool;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private static final int INITIAL_CHUNK_SIZE = 8 * 1024;
+    private static final int CHUNKS_PER_RUN = 16;
+
+    /**
+     * Takes buffered input stream from which the data should be read and the executor
+     * which runs the reads. Publishes chunks of default size
+     *
+     * @param in       - buffered input stream
+     * @param executor - executor of the reads
+     */
+    public InputStreamPublisher(BufferedInputStream in, Executor executor) {
+        this(in, executor, INITIAL_CHUNK_SIZE, BufferPool.shared(4));
+    }
+
+    /**
+     * Takes buffered input stream from which the data should be read, the executor
+     * which runs the reads, the chunk size and the pool of chunk arrays. A chunk is read
+     * only when the subscriber has requested it, and at most a few chunks are read
+     * in one task, so a small executor can serve many publishers. Nothing is read
+     * without demand, so the end of the stream is found by the read of a requested
+     * chunk and the subscriber is completed after it has requested past the last chunk
+     *
+     * @param in        - buffered input stream
+     * @param executor  - executor of the reads
+     * @param chunkSize - maximum number of bytes in a chunk
+     * @param pool      - pool of chunk arrays
+     * @throws IllegalArgumentException if chunkSize <= 0
+     */
+    public InputStreamPublisher(BufferedInputStream in, Executor executor, int chunkSize, BufferPool pool) {
+        if (in == null) {
+            throw new NullPointerException("Parameter \"in\" is null");
+        }
+        if (executor == null) {
+            throw new NullPointerException("Parameter \"executor\" is null");
+        }
+        if (pool == null) {
+            throw new NullPointerException("Parameter \"pool\" is null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Wrong \"chunkSize\"");
+        }
+        this.in = in;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Starts publishing the stream to the subscriber. The stream can be
+     * published only once, other subscribers get IllegalStateException
+     *
+     * @param subscriber - subscriber of the chunks
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Parameter \"subscriber\" is null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Stream is already published"));
+            return;
+        }
+        subscriber.onSubscribe(new ChunkSubscription(subscriber));
+    }
+
+    /**
+     * Gives the array of a published chunk back to the pool.
+     * The chunk must not be used after that
+     *
+     * @param chunk - chunk published by this publisher
+     */
+    public void release(ByteBuffer chunk) {
+        if (chunk == null) {
+            throw new NullPointerException("Parameter \"chunk\" is null");
+        }
+        pool.release(chunk.array());
+    }
+
+    /**
+     * Subscription which reads a chunk for every requested item. Reads run in tasks
+     * of the executor, one task at a time, so the subscriber is never called concurrently
+     */
+    private class ChunkSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile IllegalArgumentException wrongRequest;
+        private boolean done;
+
+        ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Adds the number of chunks to the demand
+         *
+         * @param n - number of chunks requested
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                wrongRequest = new IllegalArgumentException("Wrong \"n\"");
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            signal();
+        }
+
+        /**
+         * Stops publishing and closes the stream
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            signal();
+        }
+
+        /**
+         * Schedules a read task unless one is already running
+         */
+        private void signal() {
+            if (pendingSignals.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Reads and publishes chunks while there is demand. Gives the executor
+         * back after a few chunks scheduling the rest in a new task
+         */
+        private void drain() {
+            int missed = 1;
+            int published = 0;
+            do {
+                while (!done) {
+                    if (cancelled) {
+                        finish(null, false);
+                        break;
+                    }
+                    if (wrongRequest != null) {
+                        finish(wrongRequest, true);
+                        break;
+                    }
+                    if (demand.get() == 0) {
+                        break;
+                    }
+                    if (published == CHUNKS_PER_RUN) {
+                        executor.execute(this::drain);
+                        return;
+                    }
+                    publishChunk();
+                    published++;
+                }
+                missed = pendingSignals.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Reads one chunk and passes it to the subscriber.
+         * Completes the subscription at the end of the stream.
+         * Cancels the subscription if the subscriber throws
+         */
+        private void publishChunk() {
+            byte[] chunk = pool.acquire(chunkSize);
+            int n;
+            try {
+                n = in.read(chunk, 0, chunkSize);
+            } catch (IOException e) {
+                pool.release(chunk);
+                finish(e, true);
+                return;
+            }
+            if (n < 0) {
+                pool.release(chunk);
+                finish(null, true);
+                return;
+            }
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            try {
+                subscriber.onNext(ByteBuffer.wrap(chunk, 0, n));
+            } catch (Throwable e) {
+                // the subscriber is broken, so it is not called any more
+                cancelled = true;
+                finish(null, false);
+            }
+        }
+
+        /**
+         * Closes the stream and signals the subscriber the end of publishing
+         *
+         * @param error  - error to be passed to the subscriber or null
+         * @param notify - true if the subscriber should be notified
+         */
+        private void finish(Throwable error, boolean notify) {
+            done = true;
+            try {
+                in.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+            if (!notify || cancelled) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+
+}
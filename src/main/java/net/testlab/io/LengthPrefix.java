@@ -0,0 +1,16 @@
+package net.testlab.io;
+
+public enum LengthPrefix {
+
+    /**
+     * Record length is an unsigned LEB128 varint of one to five bytes,
+     * so records shorter than 128 bytes take a single byte of prefix
+     */
+    VARINT,
+
+    /**
+     * Record length is a big-endian int of four bytes
+     */
+    FIXED_INT
+
+}
@@ -0,0 +1,80 @@
+package net.testlab.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class Log2Histogram {
+
+    private final LongAdder[] buckets;
+    private final LongAdder total = new LongAdder();
+    static final int BUCKETS = 64;
+
+    /**
+     * Creates a histogram with a bucket for every power of two.
+     * Bucket i counts values v with 2^(i-1) <= v < 2^i, bucket 0 counts zeros
+     */
+    Log2Histogram() {
+        buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Counts the value in its bucket and adds it to the total
+     *
+     * @param value - non-negative value
+     */
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        total.add(value);
+    }
+
+    /**
+     * Returns number of values counted in every bucket
+     *
+     * @return bucket counts
+     */
+    long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns sum of all values recorded
+     *
+     * @return total of values
+     */
+    long total() {
+        return total.sum();
+    }
+
+    /**
+     * Returns number of values recorded
+     *
+     * @return number of values
+     */
+    long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Forgets all values recorded
+     */
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+    }
+
+}
@@ -0,0 +1,195 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedFileInputStream extends InputStream {
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private final long size;
+    private final int windowSize;
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Takes a file from which the data will be read.
+     * Maps the file in windows of default size.
+     *
+     * @param file - file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedFileInputStream(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Takes a file from which the data will be read and window size.
+     * Only one window of the file is mapped at a time, so the memory used is
+     * bounded by the window size and the file can be larger than Integer.MAX_VALUE.
+     * The mapped windows are released by the garbage collector
+     *
+     * @param file       - file to read
+     * @param windowSize - maximum length of a mapped region
+     * @throws IOException              if the file cannot be opened
+     * @throws IllegalArgumentException if windowSize <= 0
+     */
+    public MappedFileInputStream(Path file, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Wrong \"windowSize\"");
+        }
+        this.windowSize = windowSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.position = 0;
+    }
+
+    /**
+     * Reads a byte from the mapped window and return it.
+     * Maps the next window when the current one is over
+     *
+     * @return byte read or -1 if end of the file
+     * @throws IOException if stream is closed or mapping fails
+     */
+    @Override
+    public int read() throws IOException {
+        checkIfClosed();
+        if (position >= size) {
+            return -1;
+        }
+        ensureWindow();
+        int b = window.get((int) (position - windowStart)) & 0xFF;
+        position++;
+        return b;
+    }
+
+    /**
+     * Copies data from the mapped windows into the destination byte array
+     * moving across window boundaries. Returns number of bytes read.
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @return number of bytes read or -1 if there was no data to read
+     * @throws IOException if stream is closed or mapping fails
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int lengthToRead) throws IOException {
+        checkIfClosed();
+        validateReadParameters(bytes, offset, lengthToRead);
+        if (lengthToRead == 0) {
+            return 0;
+        }
+        if (position >= size) {
+            return -1;
+        }
+
+        int readCount = 0;
+        while (readCount < lengthToRead && position < size) {
+            ensureWindow();
+            int windowPosition = (int) (position - windowStart);
+            int n = Math.min(window.limit() - windowPosition, lengthToRead - readCount);
+            window.position(windowPosition);
+            window.get(bytes, offset + readCount, n);
+            position += n;
+            readCount += n;
+        }
+        return readCount;
+    }
+
+    /**
+     * Skips the indicated number of bytes moving position in the file.
+     * Does not map anything
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkIfClosed();
+        long skipped = Math.max(0, Math.min(size - position, n));
+        position += skipped;
+        return skipped;
+    }
+
+    /**
+     * Returns number of bytes left in the file
+     *
+     * @return number of bytes that can be read, at most Integer.MAX_VALUE
+     * @throws IOException if stream is closed
+     */
+    @Override
+    public int available() throws IOException {
+        checkIfClosed();
+        return (int) Math.min(Math.max(0, size - position), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Closes the file channel and drops the mapped window.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException in close() method
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        window = null;
+        channel.close();
+        channel = null;
+    }
+
+    /**
+     * Maps the window containing the current position if it is not mapped yet.
+     * Windows start at multiples of the window size
+     *
+     * @throws IOException if mapping fails
+     */
+    private void ensureWindow() throws IOException {
+        if (window != null && position >= windowStart && position < windowStart + window.limit()) {
+            return;
+        }
+        windowStart = position - position % windowSize;
+        long length = Math.min(windowSize, size - windowStart);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    private void validateReadParameters(byte[] bytes, int offset, int lengthToRead) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToRead < 0 || offset > bytes.length - lengthToRead) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToRead\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the file channel is null
+     */
+    private void checkIfClosed() throws IOException {
+        if (channel == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
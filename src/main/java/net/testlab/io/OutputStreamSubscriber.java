@@ -0,0 +1,155 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+public class OutputStreamSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    private final BufferedOuputStream out;
+    private final int prefetch;
+    private final Consumer<ByteBuffer> release;
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private long written;
+    private int received;
+    private static final int INITIAL_PREFETCH = 4;
+
+    /**
+     * Takes buffered output stream into which the chunks should be written.
+     * Requests a default number of chunks ahead
+     *
+     * @param out - buffered output stream
+     */
+    public OutputStreamSubscriber(BufferedOuputStream out) {
+        this(out, INITIAL_PREFETCH, null);
+    }
+
+    /**
+     * Takes buffered output stream into which the chunks should be written, the number
+     * of chunks requested ahead and the action which releases a written chunk. Chunks are
+     * requested again after half of the requested ones are written, so no more than
+     * prefetch chunks are ever waiting to be written
+     *
+     * @param out      - buffered output stream
+     * @param prefetch - number of chunks requested ahead
+     * @param release  - action applied to every written chunk or null
+     * @throws IllegalArgumentException if prefetch <= 0
+     */
+    public OutputStreamSubscriber(BufferedOuputStream out, int prefetch, Consumer<ByteBuffer> release) {
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Wrong \"prefetch\"");
+        }
+        this.out = out;
+        this.prefetch = prefetch;
+        this.release = release;
+    }
+
+    /**
+     * Returns the future which is completed with the number of bytes written
+     * when the stream is closed after the last chunk, or exceptionally if
+     * publishing or writing fails
+     *
+     * @return completion of writing
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Requests the first chunks. Other subscriptions are cancelled
+     *
+     * @param subscription - subscription of the chunks
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("Parameter \"subscription\" is null");
+        }
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(prefetch);
+    }
+
+    /**
+     * Writes the chunk into the stream and requests more chunks if needed.
+     * Cancels the subscription and closes the stream if writing fails
+     *
+     * @param chunk - chunk to be written
+     */
+    @Override
+    public void onNext(ByteBuffer chunk) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            written += chunk.remaining();
+            out.write(chunk);
+        } catch (IOException e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        } finally {
+            if (release != null) {
+                release.accept(chunk);
+            }
+        }
+        if (++received == (prefetch + 1) / 2) {
+            received = 0;
+            subscription.request((prefetch + 1) / 2);
+        }
+    }
+
+    /**
+     * Closes the stream and completes writing exceptionally
+     *
+     * @param error - error of publishing
+     */
+    @Override
+    public void onError(Throwable error) {
+        fail(error);
+    }
+
+    /**
+     * Closes the stream and completes writing
+     */
+    @Override
+    public void onComplete() {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            completion.completeExceptionally(e);
+            return;
+        }
+        completion.complete(written);
+    }
+
+    /**
+     * Closes the stream and completes writing exceptionally
+     *
+     * @param error - cause of the failure
+     */
+    private void fail(Throwable error) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+        completion.completeExceptionally(error);
+    }
+
+}
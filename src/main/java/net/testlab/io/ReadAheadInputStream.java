@@ -0,0 +1,354 @@
+package net.testlab.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+public class ReadAheadInputStream extends FilterInputStream {
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final BlockingQueue<Chunk> filledChunks;
+    private final ThreadFactory threadFactory;
+    private Thread reader;
+    private Chunk current;
+    private int position;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int INITIAL_DEPTH = 2;
+    private static final Chunk END = new Chunk(null, -1, null);
+
+    /**
+     * Takes input stream from which the data should be read.
+     * Prefetches buffers of default capacity with default depth
+     *
+     * @param in - underlying input stream
+     */
+    public ReadAheadInputStream(InputStream in) {
+        this(in, INITIAL_CAPACITY, INITIAL_DEPTH);
+    }
+
+    /**
+     * Takes input stream from which the data should be read, the buffer capacity
+     * and the number of buffers which can be filled ahead of the consumer.
+     * The data are read by a daemon thread
+     *
+     * @param in       - underlying input stream
+     * @param capacity - buffer capacity
+     * @param depth    - number of buffers filled ahead
+     * @throws IllegalArgumentException if capacity <= 0 or depth <= 0
+     */
+    public ReadAheadInputStream(InputStream in, int capacity, int depth) {
+        this(in, capacity, depth, runnable -> {
+            Thread thread = new Thread(runnable, "read-ahead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes input stream from which the data should be read, the buffer capacity,
+     * the number of buffers which can be filled ahead of the consumer and the factory
+     * of the thread which reads the underlying stream. The thread is started
+     * on the first read and fills the free buffers while the consumer drains
+     * the filled ones
+     *
+     * @param in            - underlying input stream
+     * @param capacity      - buffer capacity
+     * @param depth         - number of buffers filled ahead
+     * @param threadFactory - factory of the reading thread
+     * @throws IllegalArgumentException if capacity <= 0 or depth <= 0
+     */
+    public ReadAheadInputStream(InputStream in, int capacity, int depth, ThreadFactory threadFactory) {
+        super(in);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Wrong \"depth\"");
+        }
+        if (threadFactory == null) {
+            throw new NullPointerException("Parameter \"threadFactory\" is null");
+        }
+        this.threadFactory = threadFactory;
+        // one buffer is held by the consumer, the rest are filled ahead
+        freeBuffers = new ArrayBlockingQueue<>(depth + 1);
+        for (int i = 0; i <= depth; i++) {
+            freeBuffers.add(new byte[capacity]);
+        }
+        // room for every buffer and the end marker
+        filledChunks = new ArrayBlockingQueue<>(depth + 2);
+    }
+
+    /**
+     * Reads a byte from the current prefetched buffer.
+     * Waits for the next non-empty buffer if the current one is over
+     *
+     * @return byte read or -1 if underlying input stream has no data to read
+     * @throws IOException if stream is closed or the underlying stream
+     *                     failed at this position
+     */
+    @Override
+    public int read() throws IOException {
+        checkIfClosed();
+        while (!hasBufferedData()) {
+            if (!nextChunk(true)) {
+                return -1;
+            }
+        }
+        return current.data[position++] & 0xFF;
+    }
+
+    /**
+     * Copies prefetched data into the destination byte array.
+     * Waits only if there are no prefetched data at all.
+     * Returns number of bytes read.
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @return number of bytes read or -1 if there was no data to read
+     * @throws IOException if stream is closed or the underlying stream
+     *                     failed at this position
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int lengthToRead) throws IOException {
+        checkIfClosed();
+        validateReadParameters(bytes, offset, lengthToRead);
+        if (lengthToRead == 0) {
+            return 0;
+        }
+
+        int readCount = 0;
+        while (readCount < lengthToRead) {
+            if (!hasBufferedData() && !nextChunk(readCount == 0)) {
+                break;
+            }
+            int n = Math.min(current.length - position, lengthToRead - readCount);
+            System.arraycopy(current.data, position, bytes, offset + readCount, n);
+            position += n;
+            readCount += n;
+        }
+        return readCount != 0 ? readCount : -1;
+    }
+
+    /**
+     * Returns number of bytes already prefetched
+     *
+     * @return number of bytes that can be read without blocking
+     * @throws IOException if stream is closed
+     */
+    @Override
+    public int available() throws IOException {
+        checkIfClosed();
+        long available = hasBufferedData() ? current.length - position : 0;
+        for (Chunk chunk : filledChunks) {
+            available += Math.max(0, chunk.length);
+        }
+        return (int) Math.min(available, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Skips prefetched data without touching the underlying stream,
+     * which is read by the reading thread only.
+     * Waits only if there are no prefetched data at all
+     *
+     * @param n - number of bytes to skip
+     * @return number of bytes skipped
+     * @throws IOException if stream is closed or the underlying stream
+     *                     failed at this position
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        checkIfClosed();
+        long skipped = 0;
+        while (skipped < n) {
+            if (!hasBufferedData() && !nextChunk(skipped == 0)) {
+                break;
+            }
+            int k = (int) Math.min(current.length - position, n - skipped);
+            position += k;
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    /**
+     * Mark is not supported
+     *
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Has no effect
+     */
+    @Override
+    public void mark(int readLimit) {
+    }
+
+    /**
+     * Mark is not supported
+     *
+     * @throws IOException always
+     */
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("Mark is not supported");
+    }
+
+    /**
+     * Stops the reading thread and closes the underlying input stream.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException in close() method
+     */
+    @Override
+    public void close() throws IOException {
+        if (in == null) {
+            return;
+        }
+        if (reader != null) {
+            reader.interrupt();
+        }
+        try {
+            in.close();
+        } finally {
+            in = null;
+            current = END;
+            filledChunks.clear();
+        }
+    }
+
+    /**
+     * Checks whether the current chunk has unread data
+     *
+     * @return true if there are data to read in the current chunk
+     */
+    private boolean hasBufferedData() {
+        return current != null && position < current.length;
+    }
+
+    /**
+     * Gives the current buffer back to the reading thread and takes the next
+     * filled one. Starts the reading thread on the first call
+     *
+     * @param wait - whether to wait for the next chunk and report a failure
+     * @return false if end of the stream or there is no chunk and wait is false
+     * @throws IOException if the underlying stream failed at this position
+     */
+    private boolean nextChunk(boolean wait) throws IOException {
+        if (current == END) {
+            return false;
+        }
+        if (current != null && current.error != null) {
+            throw new IOException(current.error);
+        }
+        if (reader == null) {
+            reader = threadFactory.newThread(this::readAhead);
+            reader.start();
+        }
+        Chunk next;
+        try {
+            next = wait ? filledChunks.take() : filledChunks.poll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data");
+        }
+        if (next == null) {
+            return false;
+        }
+        if (current != null && current.data != null) {
+            freeBuffers.add(current.data);
+        }
+        current = next;
+        position = 0;
+        if (current.error != null) {
+            // the failure is reported after the data already copied by the caller
+            if (wait) {
+                throw new IOException(current.error);
+            }
+            return false;
+        }
+        return current != END;
+    }
+
+    /**
+     * Reading thread loop: fills free buffers from the underlying stream
+     * and queues them in order followed by the end marker or the failure
+     */
+    private void readAhead() {
+        InputStream source = in;
+        try {
+            while (true) {
+                byte[] data = freeBuffers.take();
+                int n;
+                try {
+                    n = source.read(data, 0, data.length);
+                } catch (IOException e) {
+                    filledChunks.put(new Chunk(null, 0, e));
+                    return;
+                }
+                if (n < 0) {
+                    filledChunks.put(END);
+                    return;
+                }
+                filledChunks.put(new Chunk(data, n, null));
+            }
+        } catch (InterruptedException e) {
+            // stream is closed
+        }
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes        - destination array
+     * @param offset       - offset in the destination array
+     * @param lengthToRead - number of bytes that should be read
+     * @throws IllegalArgumentException if offset < 0, lengthToRead < 0 or
+     *                                  offset > bytes.length - lengthToRead
+     */
+    private void validateReadParameters(byte[] bytes, int offset, int lengthToRead) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToRead < 0 || offset > bytes.length - lengthToRead) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToRead\"");
+        }
+    }
+
+    /**
+     * Checks if the underlying stream is closed
+     *
+     * @throws IOException if the underlying stream is null
+     */
+    private void checkIfClosed() throws IOException {
+        if (in == null) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    /**
+     * Portion of data read by the reading thread, the end marker
+     * or the failure of the underlying stream
+     */
+    private static final class Chunk {
+        final byte[] data;
+        final int length;
+        final IOException error;
+
+        Chunk(byte[] data, int length, IOException error) {
+            this.data = data;
+            this.length = length;
+            this.error = error;
+        }
+    }
+
+}
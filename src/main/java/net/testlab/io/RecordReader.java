@@ -0,0 +1,138 @@
+package net.testlab.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class RecordReader implements Closeable {
+
+    private final BufferedInputStream in;
+    private final BinaryReader reader;
+    private final LengthPrefix prefix;
+    private final BufferPool pool;
+    private byte[] pooledRecord;
+    private int maxRecordLength = MAX_ARRAY_SIZE;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Takes buffered input stream from which the records should be read.
+     * Records are expected to be preceded by varint lengths
+     *
+     * @param in - buffered input stream
+     */
+    public RecordReader(BufferedInputStream in) {
+        this(in, LengthPrefix.VARINT, null);
+    }
+
+    /**
+     * Takes buffered input stream from which the records should be read
+     * and the kind of the length prefix
+     *
+     * @param in     - buffered input stream
+     * @param prefix - kind of the length prefix
+     */
+    public RecordReader(BufferedInputStream in, LengthPrefix prefix) {
+        this(in, prefix, null);
+    }
+
+    /**
+     * Takes buffered input stream from which the records should be read, the kind
+     * of the length prefix and the pool of arrays for records longer than the buffer
+     *
+     * @param in     - buffered input stream
+     * @param prefix - kind of the length prefix
+     * @param pool   - pool of arrays for long records or null to allocate them
+     */
+    public RecordReader(BufferedInputStream in, LengthPrefix prefix, BufferPool pool) {
+        if (in == null) {
+            throw new NullPointerException("Parameter \"in\" is null");
+        }
+        if (prefix == null) {
+            throw new NullPointerException("Parameter \"prefix\" is null");
+        }
+        this.in = in;
+        this.reader = new BinaryReader(in);
+        this.prefix = prefix;
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the maximum length of a record, longer records are rejected
+     * before anything is allocated for them
+     *
+     * @param maxRecordLength - maximum number of bytes of a record
+     * @throws IllegalArgumentException if maxRecordLength < 0
+     */
+    public void setMaxRecordLength(int maxRecordLength) {
+        if (maxRecordLength < 0) {
+            throw new IllegalArgumentException("Wrong \"maxRecordLength\"");
+        }
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Reads the next record. If the record fits into the buffer of the stream
+     * the returned buffer is a read-only view of it, otherwise the record is read
+     * into an array taken from the pool and a read-only view of the record is returned.
+     * In both cases the returned buffer is valid only until the next read from
+     * this reader, then the array goes back to the pool. No bytes after the record
+     * are waited for, so a record is returned as soon as it has arrived
+     *
+     * @return record or null if end of the stream
+     * @throws EOFException if the stream ends inside a record
+     * @throws IOException  if the length is malformed or too large or
+     *                      gets IOException while reading the stream
+     */
+    public ByteBuffer readRecord() throws IOException {
+        releaseRecord();
+        if (in.fillAtLeast(1) <= 0) {
+            return null;
+        }
+        int length = prefix == LengthPrefix.VARINT ? reader.readVarInt() : reader.readInt();
+        if (length < 0) {
+            throw new IOException("Malformed record length");
+        }
+        if (length > maxRecordLength) {
+            throw new IOException("Record length " + length + " exceeds " + maxRecordLength);
+        }
+        if (in.fillAtLeast(length) >= length) {
+            ByteBuffer view = ByteBuffer.wrap(in.bufferArray(), in.bufferPosition(), length)
+                    .slice().asReadOnlyBuffer();
+            in.consume(length);
+            return view;
+        }
+        byte[] record = pool != null ? pool.acquire(length) : new byte[length];
+        if (pool != null) {
+            pooledRecord = record;
+        }
+        int n = in.readNBytes(record, 0, length);
+        if (n < length) {
+            throw new EOFException();
+        }
+        return ByteBuffer.wrap(record, 0, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Gives the array of the last record back to the pool
+     * and closes the underlying stream
+     *
+     * @throws IOException if gets IOException while closing the stream
+     */
+    @Override
+    public void close() throws IOException {
+        releaseRecord();
+        in.close();
+    }
+
+    /**
+     * Gives the array of the last record back to the pool if it was taken from it
+     */
+    private void releaseRecord() {
+        if (pooledRecord != null) {
+            pool.release(pooledRecord);
+            pooledRecord = null;
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package net.testlab.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+public class RecordWriter implements Closeable, Flushable {
+
+    private final BufferedOuputStream out;
+    private final BinaryWriter writer;
+    private final LengthPrefix prefix;
+    private final int batchSize;
+    private int pendingRecords;
+
+    /**
+     * Takes buffered output stream into which the records should be written.
+     * Records are preceded by varint lengths and flushed only by flush()
+     * or when the buffer is full
+     *
+     * @param out - buffered output stream
+     */
+    public RecordWriter(BufferedOuputStream out) {
+        this(out, LengthPrefix.VARINT, 0);
+    }
+
+    /**
+     * Takes buffered output stream into which the records should be written,
+     * the kind of the length prefix and the number of records per flush.
+     * Prefixes are encoded directly into the buffer of the stream, and the
+     * underlying stream is flushed once per batch of records
+     *
+     * @param out       - buffered output stream
+     * @param prefix    - kind of the length prefix
+     * @param batchSize - number of records written between flushes
+     *                    or 0 to flush only by flush()
+     * @throws IllegalArgumentException if batchSize < 0
+     */
+    public RecordWriter(BufferedOuputStream out, LengthPrefix prefix, int batchSize) {
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        if (prefix == null) {
+            throw new NullPointerException("Parameter \"prefix\" is null");
+        }
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("Wrong \"batchSize\"");
+        }
+        this.out = out;
+        this.writer = new BinaryWriter(out);
+        this.prefix = prefix;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes all bytes of the array as one record
+     *
+     * @param bytes - bytes of the record
+     * @throws IOException if gets IOException while writing the stream
+     */
+    public void writeRecord(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        writeRecord(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the length prefix and the bytes as one record.
+     * Flushes the stream if the batch is complete
+     *
+     * @param bytes         - byte array with bytes of the record
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes of the record
+     * @throws IOException if gets IOException while writing the stream
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    public void writeRecord(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        if (prefix == LengthPrefix.VARINT) {
+            writer.writeVarInt(lengthToWrite);
+        } else {
+            writer.writeInt(lengthToWrite);
+        }
+        out.write(bytes, offset, lengthToWrite);
+        if (++pendingRecords == batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns number of records written since the last flush
+     *
+     * @return number of records not flushed yet
+     */
+    public int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Flushes the underlying stream
+     *
+     * @throws IOException if gets IOException while flushing the stream
+     */
+    @Override
+    public void flush() throws IOException {
+        pendingRecords = 0;
+        out.flush();
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     * Closing already closed writer has no effect
+     *
+     * @throws IOException if gets IOException while closing the stream
+     */
+    @Override
+    public void close() throws IOException {
+        pendingRecords = 0;
+        out.close();
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package net.testlab.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SegmentedByteArrayOutputStream extends OutputStream {
+
+    private final List<byte[]> segments;
+    private final int segmentSize;
+    private byte[] current;
+    private int currentCount;
+    private long size;
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Creates a stream which keeps written data in segments
+     * of default size.
+     */
+    public SegmentedByteArrayOutputStream() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Takes segment size. Creates a stream which keeps written data
+     * in a list of byte arrays of the indicated size. New segment is appended
+     * when the last one is full, written data are never copied.
+     *
+     * @param segmentSize - size of every segment
+     * @throws IllegalArgumentException if segmentSize <= 0
+     */
+    public SegmentedByteArrayOutputStream(int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Wrong \"segmentSize\"");
+        }
+        this.segmentSize = segmentSize;
+        this.segments = new ArrayList<>();
+        this.current = null;
+        this.currentCount = segmentSize;
+        this.size = 0;
+    }
+
+    /**
+     * Writes a byte value into the last segment.
+     * If the segment is full - appends a new one
+     *
+     * @param b - byte to be write
+     */
+    @Override
+    public void write(int b) {
+        if (currentCount >= segmentSize) {
+            appendSegment();
+        }
+        current[currentCount++] = (byte) b;
+        size++;
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the segments
+     * appending new segments if needed.
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) {
+
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        while (lengthToWrite > 0) {
+            if (currentCount >= segmentSize) {
+                appendSegment();
+            }
+            int n = Math.min(segmentSize - currentCount, lengthToWrite);
+            System.arraycopy(bytes, offset, current, currentCount, n);
+            currentCount += n;
+            size += n;
+            offset += n;
+            lengthToWrite -= n;
+        }
+
+    }
+
+    /**
+     * Writes all the data written into the segments into the indicated
+     * output stream segment by segment without joining them
+     *
+     * @param out - output stream into which the data should be written
+     * @throws IOException if gets IOException while writing into the stream
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        int last = segments.size() - 1;
+        for (int i = 0; i < last; i++) {
+            out.write(segments.get(i), 0, segmentSize);
+        }
+        if (last >= 0) {
+            out.write(current, 0, currentCount);
+        }
+    }
+
+    /**
+     * Returns the number of bytes written. Can exceed Integer.MAX_VALUE
+     *
+     * @return number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Has no effect
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Returns the data written into the segments joined into one array
+     *
+     * @return bytes array of data written
+     * @throws IllegalStateException if the data written do not fit into an array
+     */
+    public byte[] toByteArray() {
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Size " + size + " is too large for an array");
+        }
+        byte[] newBuf = new byte[(int) size];
+        int position = 0;
+        int last = segments.size() - 1;
+        for (int i = 0; i < last; i++) {
+            System.arraycopy(segments.get(i), 0, newBuf, position, segmentSize);
+            position += segmentSize;
+        }
+        if (last >= 0) {
+            System.arraycopy(current, 0, newBuf, position, currentCount);
+        }
+        return newBuf;
+    }
+
+    /**
+     * Appends a new empty segment and makes it current
+     */
+    private void appendSegment() {
+        current = new byte[segmentSize];
+        currentCount = 0;
+        segments.add(current);
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package net.testlab.io;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+class SharedBufferPool extends BufferPool {
+
+    private final ArrayBlockingQueue<byte[]>[] freeBuffers;
+
+    /**
+     * Creates a bounded queue of free buffers for every size class
+     *
+     * @param maxBuffersPerClass - number of free buffers kept per size class
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    SharedBufferPool(int maxBuffersPerClass) {
+        super(maxBuffersPerClass);
+        freeBuffers = new ArrayBlockingQueue[SIZE_CLASSES];
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            freeBuffers[i] = new ArrayBlockingQueue<>(maxBuffersPerClass);
+        }
+    }
+
+    @Override
+    protected byte[] poll(int sizeClass) {
+        return freeBuffers[sizeClass].poll();
+    }
+
+    @Override
+    protected boolean offer(int sizeClass, byte[] buffer) {
+        return freeBuffers[sizeClass].offer(buffer);
+    }
+
+}
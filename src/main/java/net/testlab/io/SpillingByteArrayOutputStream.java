@@ -0,0 +1,268 @@
+package net.testlab.io;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SpillingByteArrayOutputStream extends OutputStream {
+
+    private ByteArrayOutputStream memory;
+    private BufferedOuputStream fileOut;
+    private Path file;
+    private final Path directory;
+    private final int threshold;
+    private long size;
+    private boolean closed;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Takes the threshold. Creates a stream which keeps the data written in memory
+     * until their size exceeds the threshold, then moves them to a temporary file
+     * in the default temporary directory
+     *
+     * @param threshold - maximum number of bytes kept in memory
+     * @throws IllegalArgumentException if threshold < 0
+     */
+    public SpillingByteArrayOutputStream(int threshold) {
+        this(threshold, null);
+    }
+
+    /**
+     * Takes the threshold and the directory for the temporary file. Creates a stream
+     * which keeps the data written in memory until their size exceeds the threshold,
+     * then moves them to a temporary file and appends the rest there through a buffer
+     *
+     * @param threshold - maximum number of bytes kept in memory
+     * @param directory - directory of the temporary file or null for the default one
+     * @throws IllegalArgumentException if threshold < 0
+     */
+    public SpillingByteArrayOutputStream(int threshold, Path directory) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Wrong \"threshold\"");
+        }
+        this.threshold = threshold;
+        this.directory = directory;
+        this.memory = new ByteArrayOutputStream(Math.min(threshold, 32));
+    }
+
+    /**
+     * Writes a byte value into memory or into the file
+     * if the threshold is exceeded
+     *
+     * @param b - byte to be write
+     * @throws IOException if stream is closed or gets IOException while writing the file
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkIfClosed();
+        if (memory != null && size + 1 > threshold) {
+            spill();
+        }
+        if (memory != null) {
+            memory.write(b);
+        } else {
+            fileOut.write(b);
+        }
+        size++;
+    }
+
+    /**
+     * Takes bytes from a byte array and writes them into memory or into the file
+     * if the threshold is exceeded. Data written so far are moved to the file
+     * as soon as the threshold is exceeded
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if stream is closed or gets IOException while writing the file
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        checkIfClosed();
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        if (memory != null && size + lengthToWrite > threshold) {
+            spill();
+        }
+        if (memory != null) {
+            memory.write(bytes, offset, lengthToWrite);
+        } else {
+            fileOut.write(bytes, offset, lengthToWrite);
+        }
+        size += lengthToWrite;
+    }
+
+    /**
+     * Writes the data buffered for the file into it
+     *
+     * @throws IOException if stream is closed or gets IOException while writing the file
+     */
+    @Override
+    public void flush() throws IOException {
+        checkIfClosed();
+        if (fileOut != null) {
+            fileOut.flush();
+        }
+    }
+
+    /**
+     * Returns the number of bytes written. Can exceed Integer.MAX_VALUE
+     *
+     * @return number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the data written have been moved to the temporary file
+     *
+     * @return true if the data are kept in the file
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Returns the data written as a byte array
+     *
+     * @return bytes array of data written
+     * @throws IOException           if stream is closed or gets IOException while reading the file
+     * @throws IllegalStateException if the data written do not fit into an array
+     */
+    public byte[] toByteArray() throws IOException {
+        checkIfClosed();
+        if (memory != null) {
+            return memory.toByteArray();
+        }
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalStateException("Size " + size + " is too large for an array");
+        }
+        fileOut.flush();
+        return Files.readAllBytes(file);
+    }
+
+    /**
+     * Writes all the data written into the indicated output stream.
+     * Data kept in the file are transferred by FileChannel.transferTo()
+     * if the output stream is a file or a channel
+     *
+     * @param out - output stream into which the data should be written
+     * @throws IOException if stream is closed or gets IOException while reading or writing
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        checkIfClosed();
+        if (out == null) {
+            throw new NullPointerException("Parameter \"out\" is null");
+        }
+        if (memory != null) {
+            memory.writeTo(out);
+            return;
+        }
+        try (InputStream in = toInputStream()) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Returns an input stream of the data written. Data kept in memory are read
+     * without copying, data kept in the file are read through a buffer.
+     * The stream should be read before this stream is written again or closed
+     *
+     * @return input stream of the data written
+     * @throws IOException if stream is closed or gets IOException while opening the file
+     */
+    public InputStream toInputStream() throws IOException {
+        checkIfClosed();
+        if (memory != null) {
+            return new ByteArrayInputStream(memory.bufferArray(), 0, memory.size());
+        }
+        fileOut.flush();
+        return new BufferedInputStream(new FileInputStream(file.toFile()));
+    }
+
+    /**
+     * Closes the file and deletes it if the data have been moved there.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException while closing or deleting the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        memory = null;
+        if (file == null) {
+            return;
+        }
+        try {
+            fileOut.close();
+        } finally {
+            fileOut = null;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Creates the temporary file and moves the data kept in memory there
+     *
+     * @throws IOException if gets IOException while creating or writing the file
+     */
+    private void spill() throws IOException {
+        file = directory != null
+                ? Files.createTempFile(directory, "spill", ".tmp")
+                : Files.createTempFile("spill", ".tmp");
+        try {
+            fileOut = new BufferedOuputStream(new FileOutputStream(file.toFile()));
+            memory.writeTo(fileOut);
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (fileOut != null) {
+                    fileOut.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            fileOut = null;
+            file = null;
+            throw e;
+        }
+        memory = null;
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+}
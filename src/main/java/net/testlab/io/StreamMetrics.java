@@ -0,0 +1,220 @@
+package net.testlab.io;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class StreamMetrics implements StreamMetricsMXBean {
+
+    private static final ConcurrentMap<String, StreamMetrics> GROUPS = new ConcurrentHashMap<>();
+    private static final String DOMAIN = "net.testlab.io";
+
+    private final String group;
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder refillCapacity = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final Log2Histogram refillSizes = new Log2Histogram();
+    private final Log2Histogram downstreamWriteSizes = new Log2Histogram();
+    private final Log2Histogram readBlockedNanos = new Log2Histogram();
+    private final Log2Histogram writeBlockedNanos = new Log2Histogram();
+
+    /**
+     * Takes the group name
+     *
+     * @param group - name of the stream group
+     */
+    private StreamMetrics(String group) {
+        this.group = group;
+    }
+
+    /**
+     * Returns metrics shared by all streams of the named group.
+     * The metrics of a group are created and published through
+     * the platform MBean server on the first call
+     *
+     * @param group - name of the stream group
+     * @return metrics of the group
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static StreamMetrics forGroup(String group) {
+        if (group == null) {
+            throw new NullPointerException("Parameter \"group\" is null");
+        }
+        return GROUPS.computeIfAbsent(group, name -> {
+            StreamMetrics metrics = new StreamMetrics(name);
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = objectName(name);
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metrics, objectName);
+                }
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register metrics of group " + name, e);
+            }
+            return metrics;
+        });
+    }
+
+    /**
+     * Returns the JMX name under which metrics of the group are published
+     *
+     * @param group - name of the stream group
+     * @return object name
+     * @throws JMException if the name is malformed
+     */
+    public static ObjectName objectName(String group) throws JMException {
+        return new ObjectName(DOMAIN + ":type=StreamMetrics,name=" + ObjectName.quote(group));
+    }
+
+    /**
+     * Counts a refill of a buffer from the underlying source.
+     * A read which gets no bytes is not a refill, only its time is counted
+     *
+     * @param bytes    - number of bytes read, negative at end of the source
+     * @param capacity - buffer capacity
+     * @param nanos    - time blocked in the read
+     */
+    void recordRefill(int bytes, int capacity, long nanos) {
+        if (bytes > 0) {
+            refillSizes.record(bytes);
+            refillCapacity.add(capacity);
+            bytesRead.add(bytes);
+        }
+        readBlockedNanos.record(nanos);
+    }
+
+    /**
+     * Counts a read from the underlying source bypassing the buffer
+     *
+     * @param bytes - number of bytes read, negative at end of the source
+     * @param nanos - time blocked in the read
+     */
+    void recordDirectRead(int bytes, long nanos) {
+        bytesRead.add(Math.max(bytes, 0));
+        readBlockedNanos.record(nanos);
+    }
+
+    /**
+     * Counts bytes read from memory
+     *
+     * @param bytes - number of bytes read
+     */
+    void recordRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Counts a write into the underlying sink
+     *
+     * @param bytes - number of bytes written
+     * @param nanos - time blocked in the write
+     */
+    void recordDownstreamWrite(long bytes, long nanos) {
+        bytesWritten.add(bytes);
+        downstreamWriteSizes.record(bytes);
+        writeBlockedNanos.record(nanos);
+    }
+
+    /**
+     * Counts bytes written into memory
+     *
+     * @param bytes - number of bytes written
+     */
+    void recordWrite(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Counts a flush of the underlying sink
+     *
+     * @param nanos - time blocked in the flush
+     */
+    void recordFlush(long nanos) {
+        flushes.increment();
+        writeBlockedNanos.record(nanos);
+    }
+
+    @Override
+    public String getGroup() {
+        return group;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getRefillCount() {
+        return refillSizes.count();
+    }
+
+    @Override
+    public double getAverageRefillRatio() {
+        long capacity = refillCapacity.sum();
+        return capacity == 0 ? 0 : (double) refillSizes.total() / capacity;
+    }
+
+    @Override
+    public long[] getRefillSizeHistogram() {
+        return refillSizes.snapshot();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    @Override
+    public long getDownstreamWriteCount() {
+        return downstreamWriteSizes.count();
+    }
+
+    @Override
+    public long[] getDownstreamWriteSizeHistogram() {
+        return downstreamWriteSizes.snapshot();
+    }
+
+    @Override
+    public long getReadBlockedNanos() {
+        return readBlockedNanos.total();
+    }
+
+    @Override
+    public long[] getReadBlockedNanosHistogram() {
+        return readBlockedNanos.snapshot();
+    }
+
+    @Override
+    public long getWriteBlockedNanos() {
+        return writeBlockedNanos.total();
+    }
+
+    @Override
+    public long[] getWriteBlockedNanosHistogram() {
+        return writeBlockedNanos.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        bytesRead.reset();
+        bytesWritten.reset();
+        refillCapacity.reset();
+        flushes.reset();
+        refillSizes.reset();
+        downstreamWriteSizes.reset();
+        readBlockedNanos.reset();
+        writeBlockedNanos.reset();
+    }
+
+}
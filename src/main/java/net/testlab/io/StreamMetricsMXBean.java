@@ -0,0 +1,106 @@
+package net.testlab.io;
+
+/**
+ * Management interface of a stream metrics group.
+ * Histograms have a bucket for every power of two: bucket i counts
+ * values v with 2^(i-1) <= v < 2^i, bucket 0 counts zeros
+ */
+public interface StreamMetricsMXBean {
+
+    /**
+     * Returns the name of the stream group
+     *
+     * @return name of the group
+     */
+    String getGroup();
+
+    /**
+     * Returns the number of bytes read by the streams of the group
+     *
+     * @return number of bytes read
+     */
+    long getBytesRead();
+
+    /**
+     * Returns the number of bytes written by the streams of the group
+     *
+     * @return number of bytes written
+     */
+    long getBytesWritten();
+
+    /**
+     * Returns the number of buffer refills from the underlying sources
+     *
+     * @return number of refills
+     */
+    long getRefillCount();
+
+    /**
+     * Returns the share of the buffer capacity filled by a refill on average
+     *
+     * @return bytes got by refills divided by the capacity offered, 0 if there were no refills
+     */
+    double getAverageRefillRatio();
+
+    /**
+     * Returns the histogram of the number of bytes got by a refill
+     *
+     * @return counts of the histogram buckets
+     */
+    long[] getRefillSizeHistogram();
+
+    /**
+     * Returns the number of flushes of the underlying sinks
+     *
+     * @return number of flushes
+     */
+    long getFlushCount();
+
+    /**
+     * Returns the number of writes into the underlying sinks
+     *
+     * @return number of downstream writes
+     */
+    long getDownstreamWriteCount();
+
+    /**
+     * Returns the histogram of the number of bytes in a write into the underlying sinks
+     *
+     * @return counts of the histogram buckets
+     */
+    long[] getDownstreamWriteSizeHistogram();
+
+    /**
+     * Returns the time spent blocked in reads from the underlying sources
+     *
+     * @return time blocked in nanoseconds
+     */
+    long getReadBlockedNanos();
+
+    /**
+     * Returns the histogram of the time blocked in a read from the underlying sources
+     *
+     * @return counts of the histogram buckets
+     */
+    long[] getReadBlockedNanosHistogram();
+
+    /**
+     * Returns the time spent blocked in writes and flushes of the underlying sinks
+     *
+     * @return time blocked in nanoseconds
+     */
+    long getWriteBlockedNanos();
+
+    /**
+     * Returns the histogram of the time blocked in a write or flush of the underlying sinks
+     *
+     * @return counts of the histogram buckets
+     */
+    long[] getWriteBlockedNanosHistogram();
+
+    /**
+     * Sets all counters and histograms of the group to zero
+     */
+    void reset();
+
+}
@@ -0,0 +1,231 @@
+package net.testlab.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StripedBufferedOutputStream extends FilterOutputStream {
+
+    private final int capacity;
+    private final ThreadLocal<Stripe> localStripe;
+    private final Set<Stripe> stripes = ConcurrentHashMap.newKeySet();
+    private final Object outLock = new Object();
+    private volatile boolean closed;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Takes output stream into which the data should be written.
+     * Creates buffers of default capacity for every writing thread
+     *
+     * @param out - underlying output stream
+     */
+    public StripedBufferedOutputStream(OutputStream out) {
+        this(out, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Takes output stream into which the data should be written and the buffer capacity.
+     * Every writing thread fills its own buffer, so threads do not wait for each other
+     * while writing. Every write call is a record: a full buffer is written into the
+     * underlying stream only between records under a short lock, so records of
+     * different threads are never interleaved. Records of one thread keep their order,
+     * records of different threads are ordered by the time their buffers are written
+     *
+     * @param out      - underlying output stream
+     * @param capacity - capacity of the buffer of every thread
+     * @throws IllegalArgumentException if capacity <= 0
+     */
+    public StripedBufferedOutputStream(OutputStream out, int capacity) {
+        super(out);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        this.capacity = capacity;
+        this.localStripe = ThreadLocal.withInitial(this::register);
+    }
+
+    /**
+     * Writes a byte value into the buffer of the current thread as a record.
+     * If the buffer is full - writes it into the underlying stream first
+     *
+     * @param b - byte to be write
+     * @throws IOException if stream is closed or gets IOException while writing the buffer
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkIfClosed();
+        Stripe stripe = localStripe.get();
+        synchronized (stripe) {
+            // the stream may have been closed and the buffer drained after the first check
+            checkIfClosed();
+            if (stripe.count >= stripe.buffer.length) {
+                drain(stripe);
+            }
+            stripe.buffer[stripe.count++] = (byte) b;
+        }
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the buffer of the current
+     * thread as one record. If the record does not fit into the free space of the
+     * buffer - writes the buffer into the underlying stream first. If the record is
+     * not smaller than the buffer - writes it directly into the underlying stream
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if stream is closed or gets IOException while writing
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        checkIfClosed();
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        Stripe stripe = localStripe.get();
+        synchronized (stripe) {
+            checkIfClosed();
+            if (lengthToWrite > stripe.buffer.length - stripe.count) {
+                drain(stripe);
+            }
+            if (lengthToWrite >= stripe.buffer.length) {
+                synchronized (outLock) {
+                    out.write(bytes, offset, lengthToWrite);
+                }
+                return;
+            }
+            System.arraycopy(bytes, offset, stripe.buffer, stripe.count, lengthToWrite);
+            stripe.count += lengthToWrite;
+        }
+    }
+
+    /**
+     * Writes the buffers of all threads into the underlying stream
+     * and flushes it
+     *
+     * @throws IOException if stream is closed or gets IOException while writing
+     */
+    @Override
+    public void flush() throws IOException {
+        checkIfClosed();
+        drainAll();
+        synchronized (outLock) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the buffers of all threads into the underlying stream and closes it.
+     * The stream is marked closed before the buffers are written, so a write
+     * racing close() either gets into a buffer before it is written or fails.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if gets IOException while writing or in close()
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (outLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            drainAll();
+        } finally {
+            synchronized (outLock) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Creates the buffer of the current thread and registers it for flushing
+     *
+     * @return buffer of the current thread
+     */
+    private Stripe register() {
+        Stripe stripe = new Stripe(Thread.currentThread(), new byte[capacity]);
+        stripes.add(stripe);
+        return stripe;
+    }
+
+    /**
+     * Writes the buffers of all threads into the underlying stream.
+     * Forgets the buffers of the threads which have terminated
+     *
+     * @throws IOException if gets IOException while writing
+     */
+    private void drainAll() throws IOException {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                drain(stripe);
+            }
+            if (!stripe.owner.isAlive()) {
+                stripes.remove(stripe);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer into the underlying stream.
+     * Must be called holding the lock of the buffer
+     *
+     * @param stripe - buffer of a thread
+     * @throws IOException if gets IOException while writing
+     */
+    private void drain(Stripe stripe) throws IOException {
+        if (stripe.count > 0) {
+            synchronized (outLock) {
+                out.write(stripe.buffer, 0, stripe.count);
+            }
+            stripe.count = 0;
+        }
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    /**
+     * Buffer of one writing thread
+     */
+    private static final class Stripe {
+        final Thread owner;
+        final byte[] buffer;
+        int count;
+
+        Stripe(Thread owner, byte[] buffer) {
+            this.owner = owner;
+            this.buffer = buffer;
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package net.testlab.io;
+
+import java.util.ArrayDeque;
+
+class ThreadLocalBufferPool extends BufferPool {
+
+    private final ThreadLocal<ArrayDeque<byte[]>[]> freeBuffers;
+
+    /**
+     * Creates free buffer stacks of every size class lazily for every thread
+     *
+     * @param maxBuffersPerClass - number of free buffers kept per size class and thread
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ThreadLocalBufferPool(int maxBuffersPerClass) {
+        super(maxBuffersPerClass);
+        freeBuffers = ThreadLocal.withInitial(() -> new ArrayDeque[SIZE_CLASSES]);
+    }
+
+    @Override
+    protected byte[] poll(int sizeClass) {
+        ArrayDeque<byte[]> stack = freeBuffers.get()[sizeClass];
+        return stack == null ? null : stack.pollFirst();
+    }
+
+    @Override
+    protected boolean offer(int sizeClass, byte[] buffer) {
+        ArrayDeque<byte[]>[] stacks = freeBuffers.get();
+        if (stacks[sizeClass] == null) {
+            stacks[sizeClass] = new ArrayDeque<>();
+        }
+        if (stacks[sizeClass].size() >= getMaxBuffersPerClass()) {
+            return false;
+        }
+        stacks[sizeClass].addFirst(buffer);
+        return true;
+    }
+
+}
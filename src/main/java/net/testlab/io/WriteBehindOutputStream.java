@@ -0,0 +1,324 @@
+package net.testlab.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+public class WriteBehindOutputStream extends FilterOutputStream {
+
+    private final BlockingQueue<byte[]> freeBuffers;
+    private final BlockingQueue<Chunk> pendingChunks;
+    private final ThreadFactory threadFactory;
+    private Thread writer;
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+    private volatile Throwable failure;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int INITIAL_IN_FLIGHT = 2;
+
+    /**
+     * Takes output stream into which the data should be written.
+     * Creates buffers of default capacity with default number of buffers in flight
+     *
+     * @param out - underlying output stream
+     */
+    public WriteBehindOutputStream(OutputStream out) {
+        this(out, INITIAL_CAPACITY, INITIAL_IN_FLIGHT);
+    }
+
+    /**
+     * Takes output stream into which the data should be written, the buffer capacity
+     * and the number of full buffers which can wait for the writing thread.
+     * The data are written by a daemon thread
+     *
+     * @param out         - underlying output stream
+     * @param capacity    - buffer capacity
+     * @param maxInFlight - number of full buffers handed to the writing thread
+     * @throws IllegalArgumentException if capacity <= 0 or maxInFlight <= 0
+     */
+    public WriteBehindOutputStream(OutputStream out, int capacity, int maxInFlight) {
+        this(out, capacity, maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes output stream into which the data should be written, the buffer capacity,
+     * the number of full buffers which can wait for the writing thread and the factory
+     * of the writing thread. Full buffers are handed to the writing thread and the
+     * producer continues with a free one, waiting only when all buffers are in flight
+     *
+     * @param out           - underlying output stream
+     * @param capacity      - buffer capacity
+     * @param maxInFlight   - number of full buffers handed to the writing thread
+     * @param threadFactory - factory of the writing thread
+     * @throws IllegalArgumentException if capacity <= 0 or maxInFlight <= 0
+     */
+    public WriteBehindOutputStream(OutputStream out, int capacity, int maxInFlight, ThreadFactory threadFactory) {
+        super(out);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Wrong \"capacity\"");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Wrong \"maxInFlight\"");
+        }
+        if (threadFactory == null) {
+            throw new NullPointerException("Parameter \"threadFactory\" is null");
+        }
+        this.threadFactory = threadFactory;
+        // the producer may hand off its buffer before taking a free one
+        freeBuffers = new ArrayBlockingQueue<>(maxInFlight + 1);
+        for (int i = 0; i < maxInFlight; i++) {
+            freeBuffers.add(new byte[capacity]);
+        }
+        pendingChunks = new LinkedBlockingQueue<>();
+        buffer = new byte[capacity];
+        count = 0;
+    }
+
+    /**
+     * Writes a byte value into the buffer.
+     * If the buffer is full - hands it to the writing thread
+     *
+     * @param b - byte to be write
+     * @throws IOException if stream is closed or the writing thread failed
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkIfClosed();
+        if (count >= buffer.length) {
+            handOff();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Takes bytes from a byte array and copies them into the buffers
+     * handing every full buffer to the writing thread
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IOException if stream is closed or the writing thread failed
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    @Override
+    public void write(byte[] bytes, int offset, int lengthToWrite) throws IOException {
+        checkIfClosed();
+        validateWriteParameters(bytes, offset, lengthToWrite);
+        while (lengthToWrite > 0) {
+            if (count >= buffer.length) {
+                handOff();
+            }
+            int n = Math.min(buffer.length - count, lengthToWrite);
+            System.arraycopy(bytes, offset, buffer, count, n);
+            count += n;
+            offset += n;
+            lengthToWrite -= n;
+        }
+    }
+
+    /**
+     * Hands the buffer to the writing thread and waits until all handed
+     * buffers are written and the underlying stream is flushed
+     *
+     * @throws IOException if stream is closed or the writing thread failed
+     */
+    @Override
+    public void flush() throws IOException {
+        checkIfClosed();
+        if (count > 0) {
+            handOff();
+        }
+        awaitWriter(Chunk.FLUSH);
+    }
+
+    /**
+     * Writes all buffered data, stops the writing thread and closes
+     * the underlying stream. Rethrows a failure of the writing thread.
+     * Closing already closed stream has no effect
+     *
+     * @throws IOException if the writing thread failed or gets IOException in close()
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (count > 0) {
+                handOff();
+            }
+            awaitWriter(Chunk.STOP);
+        } finally {
+            closed = true;
+            if (writer != null) {
+                // the writer is already stopped unless the hand off failed
+                writer.interrupt();
+            }
+            out.close();
+        }
+    }
+
+    /**
+     * Hands the current buffer to the writing thread and takes a free one.
+     * Waits if all buffers are in flight
+     *
+     * @throws IOException if stream is closed or the writing thread failed
+     */
+    private void handOff() throws IOException {
+        checkIfClosed();
+        checkFailure();
+        startWriter();
+        pendingChunks.add(new Chunk(buffer, count, null));
+        try {
+            buffer = freeBuffers.take();
+        } catch (InterruptedException e) {
+            buffer = new byte[buffer.length];
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free buffer");
+        } finally {
+            count = 0;
+        }
+        checkFailure();
+    }
+
+    /**
+     * Queues the marker after all handed buffers and waits until
+     * the writing thread reaches it
+     *
+     * @param marker - flush or stop marker
+     * @throws IOException if the writing thread failed
+     */
+    private void awaitWriter(Chunk marker) throws IOException {
+        if (writer != null) {
+            Chunk request = new Chunk(null, marker.length, new CountDownLatch(1));
+            pendingChunks.add(request);
+            try {
+                request.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the writer");
+            }
+        } else if (marker == Chunk.FLUSH) {
+            out.flush();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Starts the writing thread on the first hand off
+     */
+    private void startWriter() {
+        if (writer == null) {
+            writer = threadFactory.newThread(this::writeBehind);
+            writer.start();
+        }
+    }
+
+    /**
+     * Writing thread loop: writes handed buffers into the underlying stream in order
+     * and gives them back. Any exception of the underlying stream is kept as the failure,
+     * after it the buffers are only given back and the waiting requests are released
+     */
+    private void writeBehind() {
+        while (true) {
+            Chunk chunk;
+            try {
+                chunk = pendingChunks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    if (chunk.data != null) {
+                        out.write(chunk.data, 0, chunk.length);
+                    } else if (chunk.length == Chunk.FLUSH.length) {
+                        out.flush();
+                    }
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                if (chunk.data != null) {
+                    freeBuffers.add(chunk.data);
+                } else {
+                    chunk.done.countDown();
+                }
+            }
+            if (chunk.data == null && chunk.length == Chunk.STOP.length) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rethrows a failure of the writing thread
+     *
+     * @throws IOException if the writing thread failed
+     */
+    private void checkFailure() throws IOException {
+        Throwable e = failure;
+        if (e != null) {
+            throw new IOException("Write behind failed", e);
+        }
+    }
+
+    /**
+     * Check parameters received for validity
+     *
+     * @param bytes         - byte array with bytes to be write
+     * @param offset        - offset in the byte array
+     * @param lengthToWrite - number of bytes that should be write
+     * @throws IllegalArgumentException if offset < 0, lengthToWrite < 0 or
+     *                                  offset > bytes.length - lengthToWrite
+     */
+    private void validateWriteParameters(byte[] bytes, int offset, int lengthToWrite) {
+        if (bytes == null) {
+            throw new NullPointerException("Parameter \"bytes\" is null");
+        }
+        if (offset < 0 || lengthToWrite < 0 || offset > bytes.length - lengthToWrite) {
+            throw new IllegalArgumentException("Wrong \"offset\" and/or \"lengthToWrite\"");
+        }
+    }
+
+    /**
+     * Checks if the stream is closed
+     *
+     * @throws IOException if the stream is closed
+     */
+    private void checkIfClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    /**
+     * Full buffer handed to the writing thread or a flush or stop request
+     */
+    private static final class Chunk {
+        static final Chunk FLUSH = new Chunk(null, -1, null);
+        static final Chunk STOP = new Chunk(null, -2, null);
+
+        final byte[] data;
+        final int length;
+        final CountDownLatch done;
+
+        Chunk(byte[] data, int length, CountDownLatch done) {
+            this.data = data;
+            this.length = length;
+            this.done = done;
+        }
+    }
+
+}
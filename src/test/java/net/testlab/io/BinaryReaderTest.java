@@ -0,0 +1,222 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryReaderTest {
+
+    byte[] data;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < 100; i++) {
+            out.writeByte(i - 50);
+            out.writeShort(i * 1000 - 30000);
+            out.writeInt(i * 123456789);
+            out.writeLong(i * 1234567890123L);
+            out.writeFloat(i / 3.0f);
+            out.writeDouble(-i / 7.0);
+        }
+        data = bytes.toByteArray();
+    }
+
+    void assertValues(BinaryReader reader) throws IOException {
+        for (int i = 0; i < 100; i++) {
+            assertEquals((byte) (i - 50), reader.readByte());
+            assertEquals((short) (i * 1000 - 30000), reader.readShort());
+            assertEquals(i * 123456789, reader.readInt());
+            assertEquals(i * 1234567890123L, reader.readLong());
+            assertEquals(i / 3.0f, reader.readFloat());
+            assertEquals(-i / 7.0, reader.readDouble());
+        }
+    }
+
+    @Nested
+    class BigEndianTest {
+
+        @Test
+        @DisplayName("Read values written by DataOutputStream from buffered stream")
+        void readFromBufferedStream() throws Exception {
+            // values are split by the end of the small buffer
+            BufferedInputStream in = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 13);
+            assertValues(new BinaryReader(in));
+            assertEquals(-1, in.read());
+        }
+
+        @Test
+        @DisplayName("Read values written by DataOutputStream from buffer smaller than a value")
+        void readFromTinyBuffer() throws Exception {
+            BufferedInputStream in = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 3);
+            assertValues(new BinaryReader(in));
+            assertEquals(-1, in.read());
+        }
+
+        @Test
+        @DisplayName("Read values written by DataOutputStream from byte array stream")
+        void readFromByteArrayStream() throws Exception {
+            ByteArrayInputStream in = new ByteArrayInputStream(data);
+            assertValues(new BinaryReader(in));
+            assertEquals(-1, in.read());
+        }
+
+        @Test
+        @DisplayName("Mix reading values and bytes")
+        void mixWithStreamReads() throws Exception {
+            BufferedInputStream in = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 16);
+            BinaryReader reader = new BinaryReader(in);
+            assertEquals((byte) -50, (byte) in.read());
+            assertEquals((short) -30000, reader.readShort());
+            assertEquals(0, reader.readInt());
+            byte[] rest = new byte[data.length - 7];
+            assertEquals(rest.length, in.readAllBytes().length);
+        }
+    }
+
+    @Nested
+    class LittleEndianTest {
+
+        @Test
+        @DisplayName("Read little-endian values")
+        void readLittleEndian() throws Exception {
+            ByteBuffer buffer = ByteBuffer.allocate(14).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putShort((short) 0x1234).putInt(0x12345678).putLong(0x0102030405060708L);
+            for (int capacity : new int[]{3, 5, 64}) {
+                BufferedInputStream in = new BufferedInputStream(
+                        new java.io.ByteArrayInputStream(buffer.array()), capacity);
+                BinaryReader reader = new BinaryReader(in, ByteOrder.LITTLE_ENDIAN);
+                assertEquals(ByteOrder.LITTLE_ENDIAN, reader.order());
+                assertEquals((short) 0x1234, reader.readShort());
+                assertEquals(0x12345678, reader.readInt());
+                assertEquals(0x0102030405060708L, reader.readLong());
+            }
+        }
+    }
+
+    @Nested
+    class VarIntTest {
+
+        @Test
+        @DisplayName("Read values written by BinaryWriter")
+        void roundTrip() throws Exception {
+            int[] ints = {0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+            long[] longs = {0, 1, 127, 128, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinaryWriter writer = new BinaryWriter(bytes);
+            for (int value : ints) {
+                writer.writeVarInt(value);
+                writer.writeZigZagInt(value);
+            }
+            for (long value : longs) {
+                writer.writeVarLong(value);
+                writer.writeZigZagLong(value);
+            }
+            for (int capacity : new int[]{1, 7, 8192}) {
+                BufferedInputStream in = new BufferedInputStream(
+                        new java.io.ByteArrayInputStream(bytes.toByteArray()), capacity);
+                BinaryReader reader = new BinaryReader(in);
+                for (int value : ints) {
+                    assertEquals(value, reader.readVarInt());
+                    assertEquals(value, reader.readZigZagInt());
+                }
+                for (long value : longs) {
+                    assertEquals(value, reader.readVarLong());
+                    assertEquals(value, reader.readZigZagLong());
+                }
+                assertEquals(-1, in.read());
+            }
+        }
+
+        @Test
+        @DisplayName("Read known encodings")
+        void readKnownEncodings() throws Exception {
+            byte[] encoded = {(byte) 0xAC, 0x02, 0x03, (byte) 0x80, 0x01};
+            BinaryReader reader = new BinaryReader(new ByteArrayInputStream(encoded));
+            assertEquals(300, reader.readVarInt());
+            assertEquals(-2, reader.readZigZagInt());
+            assertEquals(128, reader.readVarLong());
+        }
+
+        @Test
+        @DisplayName("Read too long varint")
+        void readMalformed() {
+            byte[] encoded = {-1, -1, -1, -1, -1, -1, -1, -1};
+            BinaryReader reader = new BinaryReader(new ByteArrayInputStream(encoded));
+            assertThrows(IOException.class, reader::readVarInt);
+        }
+
+        @Test
+        @DisplayName("Read varint overflowing its width")
+        void readOverflowing() {
+            // 2^32 + 5 does not fit into an int
+            byte[] overflowingInt = {(byte) 0x85, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10, 0, 0, 0, 0, 0};
+            assertThrows(IOException.class, new BinaryReader(new ByteArrayInputStream(overflowingInt))::readVarInt);
+            assertThrows(IOException.class, new BinaryReader(new BufferedInputStream(
+                    new java.io.ByteArrayInputStream(overflowingInt), 1))::readVarInt);
+            byte[] overflowingLong = {-1, -1, -1, -1, -1, -1, -1, -1, -1, 0x02};
+            assertThrows(IOException.class, new BinaryReader(new ByteArrayInputStream(overflowingLong))::readVarLong);
+            assertThrows(IOException.class, new BinaryReader(new BufferedInputStream(
+                    new java.io.ByteArrayInputStream(overflowingLong), 1))::readVarLong);
+        }
+
+        @Test
+        @DisplayName("Read varint from stream which stays open")
+        void readFromOpenStream() throws Exception {
+            java.io.PipedOutputStream pipe = new java.io.PipedOutputStream();
+            BinaryReader reader = new BinaryReader(new BufferedInputStream(new java.io.PipedInputStream(pipe)));
+            pipe.write(new byte[]{5, 1, 2});
+            pipe.flush();
+            assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+                assertEquals(5, reader.readVarInt());
+                assertEquals(1, reader.readVarLong());
+                assertEquals(2, reader.readVarInt());
+            });
+        }
+    }
+
+    @Nested
+    class ExceptionsTest {
+
+        @Test
+        @DisplayName("Read truncated value")
+        void readTruncated() {
+            BinaryReader reader = new BinaryReader(
+                    new BufferedInputStream(new java.io.ByteArrayInputStream(new byte[]{1, 2, 3})));
+            assertThrows(EOFException.class, reader::readInt);
+        }
+
+        @Test
+        @DisplayName("Read truncated varint")
+        void readTruncatedVarInt() {
+            BinaryReader reader = new BinaryReader(new ByteArrayInputStream(new byte[]{(byte) 0x80}));
+            assertThrows(EOFException.class, reader::readVarInt);
+        }
+
+        @Test
+        @DisplayName("Read closed stream")
+        void readClosed() throws Exception {
+            BufferedInputStream in = new BufferedInputStream(new java.io.ByteArrayInputStream(data));
+            BinaryReader reader = new BinaryReader(in);
+            in.close();
+            assertThrows(IOException.class, reader::readLong);
+        }
+
+        @Test
+        @DisplayName("Create with null stream")
+        void createWithNull() {
+            assertThrows(NullPointerException.class, () -> new BinaryReader((BufferedInputStream) null));
+            assertThrows(NullPointerException.class,
+                    () -> new BinaryReader(new ByteArrayInputStream(data), null));
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryWriterTest {
+
+    java.io.ByteArrayOutputStream nativeBytes;
+    DataOutputStream nativeStream;
+
+    @BeforeEach
+    void setUp() {
+        nativeBytes = new java.io.ByteArrayOutputStream();
+        nativeStream = new DataOutputStream(nativeBytes);
+    }
+
+    void writeValues(BinaryWriter writer) throws IOException {
+        for (int i = 0; i < 100; i++) {
+            writer.writeByte(i - 50);
+            writer.writeShort(i * 1000 - 30000);
+            writer.writeInt(i * 123456789);
+            writer.writeLong(i * 1234567890123L);
+            writer.writeFloat(i / 3.0f);
+            writer.writeDouble(-i / 7.0);
+        }
+    }
+
+    void writeNativeValues() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            nativeStream.writeByte(i - 50);
+            nativeStream.writeShort(i * 1000 - 30000);
+            nativeStream.writeInt(i * 123456789);
+            nativeStream.writeLong(i * 1234567890123L);
+            nativeStream.writeFloat(i / 3.0f);
+            nativeStream.writeDouble(-i / 7.0);
+        }
+    }
+
+    @Nested
+    class BigEndianTest {
+
+        @Test
+        @DisplayName("Write the same bytes as DataOutputStream into buffered stream")
+        void writeToBufferedStream() throws Exception {
+            for (int capacity : new int[]{3, 13, 8192}) {
+                java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+                BufferedOuputStream out = new BufferedOuputStream(target, capacity);
+                writeValues(new BinaryWriter(out));
+                out.flush();
+                setUp();
+                writeNativeValues();
+                assertArrayEquals(nativeBytes.toByteArray(), target.toByteArray());
+            }
+        }
+
+        @Test
+        @DisplayName("Write the same bytes as DataOutputStream into byte array stream")
+        void writeToByteArrayStream() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1);
+            writeValues(new BinaryWriter(out));
+            writeNativeValues();
+            assertArrayEquals(nativeBytes.toByteArray(), out.toByteArray());
+            assertEquals(nativeBytes.size(), out.size());
+        }
+
+        @Test
+        @DisplayName("Mix writing values and bytes")
+        void mixWithStreamWrites() throws Exception {
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            BufferedOuputStream out = new BufferedOuputStream(target, 5);
+            BinaryWriter writer = new BinaryWriter(out);
+            out.write(7);
+            writer.writeInt(0x01020304);
+            out.write(new byte[]{8, 9});
+            writer.writeShort(0x0506);
+            out.flush();
+            assertArrayEquals(new byte[]{7, 1, 2, 3, 4, 8, 9, 5, 6}, target.toByteArray());
+        }
+    }
+
+    @Nested
+    class LittleEndianTest {
+
+        @Test
+        @DisplayName("Write little-endian values")
+        void writeLittleEndian() throws Exception {
+            ByteBuffer expected = ByteBuffer.allocate(14).order(ByteOrder.LITTLE_ENDIAN);
+            expected.putShort((short) 0x1234).putInt(0x12345678).putLong(0x0102030405060708L);
+            for (int capacity : new int[]{3, 5, 64}) {
+                java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+                BufferedOuputStream out = new BufferedOuputStream(target, capacity);
+                BinaryWriter writer = new BinaryWriter(out, ByteOrder.LITTLE_ENDIAN);
+                assertEquals(ByteOrder.LITTLE_ENDIAN, writer.order());
+                writer.writeShort(0x1234);
+                writer.writeInt(0x12345678);
+                writer.writeLong(0x0102030405060708L);
+                out.flush();
+                assertArrayEquals(expected.array(), target.toByteArray());
+            }
+        }
+    }
+
+    @Nested
+    class VarIntTest {
+
+        @Test
+        @DisplayName("Write known encodings")
+        void writeKnownEncodings() throws Exception {
+            for (int capacity : new int[]{1, 4, 64}) {
+                java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+                BufferedOuputStream out = new BufferedOuputStream(target, capacity);
+                BinaryWriter writer = new BinaryWriter(out);
+                writer.writeVarInt(300);
+                writer.writeZigZagInt(-2);
+                writer.writeVarLong(128);
+                writer.writeZigZagLong(1);
+                out.flush();
+                assertArrayEquals(new byte[]{(byte) 0xAC, 0x02, 0x03, (byte) 0x80, 0x01, 0x02},
+                        target.toByteArray());
+            }
+        }
+
+        @Test
+        @DisplayName("Fill the buffer with short varints before writing it")
+        void fillBufferWithVarInts() throws Exception {
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            BufferedOuputStream out = new BufferedOuputStream(target, 16);
+            BinaryWriter writer = new BinaryWriter(out);
+            writer.writeLong(0);
+            for (int i = 0; i < 7; i++) {
+                writer.writeVarLong(i);
+            }
+            writer.writeVarInt(1);
+            assertEquals(0, target.size());
+            writer.writeVarInt(300);
+            assertEquals(16, target.size());
+            out.flush();
+            byte[] expected = {0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 2, 3, 4, 5, 6, 1, (byte) 0xAC, 0x02};
+            assertArrayEquals(expected, target.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write negative varints with maximum length")
+        void writeNegative() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BinaryWriter writer = new BinaryWriter(out);
+            writer.writeVarInt(-1);
+            assertEquals(5, out.size());
+            writer.writeVarLong(-1);
+            assertEquals(15, out.size());
+        }
+    }
+
+    @Nested
+    class ExceptionsTest {
+
+        @Test
+        @DisplayName("Write into closed stream")
+        void writeClosed() throws Exception {
+            BufferedOuputStream out = new BufferedOuputStream(new java.io.ByteArrayOutputStream());
+            BinaryWriter writer = new BinaryWriter(out);
+            out.close();
+            assertThrows(IOException.class, () -> writer.writeLong(1));
+        }
+
+        @Test
+        @DisplayName("Create with null stream")
+        void createWithNull() {
+            assertThrows(NullPointerException.class, () -> new BinaryWriter((BufferedOuputStream) null));
+            assertThrows(NullPointerException.class,
+                    () -> new BinaryWriter(new ByteArrayOutputStream(), null));
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCompressingOutputStreamTest {
+
+    byte[] data;
+    java.io.ByteArrayOutputStream target;
+    BlockCompressingOutputStream testedStream;
+
+    @BeforeEach
+    void setUp() {
+        // compressible text with some random bytes
+        Random random = new Random(42);
+        data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7 == 0 ? random.nextInt() : 'a' + i % 26);
+        }
+        target = new java.io.ByteArrayOutputStream();
+    }
+
+    byte[] inflateRaw(byte[] compressed) throws IOException {
+        return new InflaterInputStream(new java.io.ByteArrayInputStream(compressed), new Inflater(true)).readAllBytes();
+    }
+
+    @Nested
+    class RawFormatTest {
+
+        @Test
+        @DisplayName("Write data readable by InflaterInputStream")
+        void writeRaw() throws Exception {
+            testedStream = new BlockCompressingOutputStream(target, 4096, Deflater.BEST_SPEED, BlockFormat.RAW);
+            testedStream.write(data, 0, 10);
+            testedStream.write(data[10]);
+            testedStream.write(data, 11, data.length - 11);
+            testedStream.close();
+            assertTrue(target.size() < data.length);
+            assertArrayEquals(data, inflateRaw(target.toByteArray()));
+        }
+
+        @Test
+        @DisplayName("Write directly into the buffer of BufferedOuputStream")
+        void writeIntoBufferedStream() throws Exception {
+            testedStream = new BlockCompressingOutputStream(new BufferedOuputStream(target, 100),
+                    1000, Deflater.DEFAULT_COMPRESSION, BlockFormat.RAW);
+            testedStream.write(data);
+            testedStream.close();
+            assertArrayEquals(data, inflateRaw(target.toByteArray()));
+        }
+
+        @Test
+        @DisplayName("Flush makes written data readable")
+        void flushData() throws Exception {
+            testedStream = new BlockCompressingOutputStream(target);
+            testedStream.write(data, 0, 1000);
+            testedStream.flush();
+            InflaterInputStream in = new InflaterInputStream(
+                    new java.io.ByteArrayInputStream(target.toByteArray()), new Inflater(true));
+            byte[] flushed = new byte[1000];
+            int n = 0;
+            while (n < flushed.length) {
+                n += in.read(flushed, n, flushed.length - n);
+            }
+            assertArrayEquals(java.util.Arrays.copyOf(data, 1000), flushed);
+            testedStream.close();
+        }
+    }
+
+    @Nested
+    class FramedFormatTest {
+
+        @Test
+        @DisplayName("Write blocks as separate frames")
+        void writeFrames() throws Exception {
+            testedStream = new BlockCompressingOutputStream(target, 30_000, 6, BlockFormat.FRAMED);
+            testedStream.write(data);
+            testedStream.close();
+            ByteBuffer frames = ByteBuffer.wrap(target.toByteArray());
+            java.io.ByteArrayOutputStream restored = new java.io.ByteArrayOutputStream();
+            int blocks = 0;
+            while (frames.hasRemaining()) {
+                int compressedLength = frames.getInt();
+                int rawLength = frames.getInt();
+                byte[] compressed = new byte[compressedLength];
+                frames.get(compressed);
+                byte[] raw = inflateRaw(compressed);
+                assertEquals(rawLength, raw.length);
+                restored.write(raw);
+                blocks++;
+            }
+            assertEquals(4, blocks);
+            assertArrayEquals(data, restored.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write incompressible data")
+        void writeIncompressible() throws Exception {
+            new Random(1).nextBytes(data);
+            testedStream = new BlockCompressingOutputStream(target, data.length, 9, BlockFormat.FRAMED);
+            testedStream.write(data);
+            testedStream.close();
+            byte[] compressed = target.toByteArray();
+            assertArrayEquals(data, inflateRaw(java.util.Arrays.copyOfRange(compressed, 8, compressed.length)));
+        }
+    }
+
+    @Nested
+    class ExceptionsTest {
+
+        @Test
+        @DisplayName("Create with wrong parameters")
+        void createWithWrongParameters() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new BlockCompressingOutputStream(target, 0, 1, BlockFormat.RAW));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new BlockCompressingOutputStream(target, 10, 10, BlockFormat.RAW));
+            assertThrows(NullPointerException.class,
+                    () -> new BlockCompressingOutputStream(target, 10, 1, null));
+        }
+
+        @Test
+        @DisplayName("Write into closed stream")
+        void writeClosed() throws Exception {
+            testedStream = new BlockCompressingOutputStream(target);
+            testedStream.close();
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertThrows(IOException.class, () -> testedStream.flush());
+        }
+    }
+
+}
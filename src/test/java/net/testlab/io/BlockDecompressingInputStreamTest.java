@@ -0,0 +1,159 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockDecompressingInputStreamTest {
+
+    byte[] data;
+    BlockDecompressingInputStream testedStream;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 5 == 0 ? random.nextInt() : 'a' + i % 26);
+        }
+    }
+
+    byte[] compress(BlockFormat format, int blockSize) throws IOException {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        try (BlockCompressingOutputStream out = new BlockCompressingOutputStream(
+                target, blockSize, Deflater.DEFAULT_COMPRESSION, format)) {
+            out.write(data);
+        }
+        return target.toByteArray();
+    }
+
+    byte[] readByChunks(InputStream in, int chunk) throws IOException {
+        java.io.ByteArrayOutputStream restored = new java.io.ByteArrayOutputStream();
+        byte[] bytes = new byte[chunk];
+        int n;
+        while ((n = in.read(bytes, 0, chunk)) >= 0) {
+            restored.write(bytes, 0, n);
+        }
+        return restored.toByteArray();
+    }
+
+    @Nested
+    class RawFormatTest {
+
+        @Test
+        @DisplayName("Read data written by DeflaterOutputStream")
+        void readDeflaterOutput() throws Exception {
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            try (DeflaterOutputStream out = new DeflaterOutputStream(target, new Deflater(6, true))) {
+                out.write(data);
+            }
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(target.toByteArray()));
+            assertArrayEquals(data, readByChunks(testedStream, 333));
+            assertEquals(-1, testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Read from the buffer of BufferedInputStream without reading past the end")
+        void readFromBufferedStream() throws Exception {
+            byte[] compressed = compress(BlockFormat.RAW, 4096);
+            byte[] withTrailer = Arrays.copyOf(compressed, compressed.length + 3);
+            withTrailer[compressed.length] = 7;
+            BufferedInputStream in = new BufferedInputStream(new java.io.ByteArrayInputStream(withTrailer), 64);
+            testedStream = new BlockDecompressingInputStream(in);
+            assertArrayEquals(data, readByChunks(testedStream, 1000));
+            assertEquals(7, in.read());
+        }
+
+        @Test
+        @DisplayName("Read byte by byte")
+        void readBytes() throws Exception {
+            testedStream = new BlockDecompressingInputStream(
+                    new java.io.ByteArrayInputStream(compress(BlockFormat.RAW, 1000)));
+            for (byte b : data) {
+                assertEquals(b & 0xFF, testedStream.read());
+            }
+            assertEquals(-1, testedStream.read());
+        }
+    }
+
+    @Nested
+    class FramedFormatTest {
+
+        @Test
+        @DisplayName("Read frames from stream")
+        void readFrames() throws Exception {
+            testedStream = new BlockDecompressingInputStream(
+                    new java.io.ByteArrayInputStream(compress(BlockFormat.FRAMED, 7000)), BlockFormat.FRAMED);
+            assertArrayEquals(data, readByChunks(testedStream, 5000));
+        }
+
+        @Test
+        @DisplayName("Read frames from the buffer of BufferedInputStream")
+        void readFramesFromBufferedStream() throws Exception {
+            BufferedInputStream in = new BufferedInputStream(
+                    new java.io.ByteArrayInputStream(compress(BlockFormat.FRAMED, 7000)), 100);
+            testedStream = new BlockDecompressingInputStream(in, BlockFormat.FRAMED);
+            assertArrayEquals(data, readByChunks(testedStream, 777));
+        }
+
+        @Test
+        @DisplayName("Skip and count available bytes of the block")
+        void skipAndAvailable() throws Exception {
+            testedStream = new BlockDecompressingInputStream(
+                    new java.io.ByteArrayInputStream(compress(BlockFormat.FRAMED, 1000)), BlockFormat.FRAMED);
+            assertEquals(12_345, testedStream.skip(12_345));
+            assertEquals(data[12_345] & 0xFF, testedStream.read());
+            assertEquals(1000 - 346, testedStream.available());
+            assertEquals(data.length - 12_346, testedStream.skip(Long.MAX_VALUE));
+            assertEquals(-1, testedStream.read());
+        }
+    }
+
+    @Nested
+    class ExceptionsTest {
+
+        @Test
+        @DisplayName("Read truncated data")
+        void readTruncated() throws Exception {
+            byte[] compressed = compress(BlockFormat.FRAMED, 7000);
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(
+                    Arrays.copyOf(compressed, compressed.length / 2)), BlockFormat.FRAMED);
+            assertThrows(EOFException.class, () -> readByChunks(testedStream, 1000));
+
+            compressed = compress(BlockFormat.RAW, 7000);
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(
+                    Arrays.copyOf(compressed, compressed.length / 2)));
+            assertThrows(EOFException.class, () -> readByChunks(testedStream, 1000));
+        }
+
+        @Test
+        @DisplayName("Read malformed data")
+        void readMalformed() {
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(
+                    new byte[]{0, 0, 0, 4, 0, 0, 0, 10, -1, -1, -1, -1}), BlockFormat.FRAMED);
+            assertThrows(IOException.class, () -> testedStream.read());
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(
+                    new byte[]{0, 0, 0, 0, 0, 0, 0, 0}), BlockFormat.FRAMED);
+            assertThrows(IOException.class, () -> testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Read closed stream")
+        void readClosed() throws Exception {
+            testedStream = new BlockDecompressingInputStream(new java.io.ByteArrayInputStream(new byte[0]));
+            testedStream.close();
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.read());
+            assertFalse(testedStream.markSupported());
+        }
+    }
+
+}
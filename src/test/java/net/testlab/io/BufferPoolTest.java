@@ -0,0 +1,165 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+    final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    BufferPool pool;
+
+    @Nested
+    class SharedPoolTest {
+
+        @BeforeEach
+        void setUp() {
+            pool = BufferPool.shared(1);
+        }
+
+        @Test
+        @DisplayName("Acquire rounds capacity up to size class")
+        void acquireSizeClass() throws Exception {
+            assertEquals(64, pool.acquire(1).length);
+            assertEquals(1024, pool.acquire(1000).length);
+            assertEquals(8192, pool.acquire(8192).length);
+            assertEquals(3, pool.getMisses());
+        }
+
+        @Test
+        @DisplayName("Released buffer is reused")
+        void reuseBuffer() throws Exception {
+            byte[] buffer = pool.acquire(8192);
+            pool.release(buffer);
+            assertSame(buffer, pool.acquire(5000));
+            assertEquals(1, pool.getHits());
+            assertEquals(1, pool.getMisses());
+        }
+
+        @Test
+        @DisplayName("Buffers over the bound are evicted")
+        void evictBuffer() throws Exception {
+            byte[] first = pool.acquire(100);
+            byte[] second = pool.acquire(100);
+            pool.release(first);
+            pool.release(second);
+            assertEquals(1, pool.getEvictions());
+            pool.release(new byte[100]);
+            assertEquals(1, pool.getEvictions());
+        }
+
+        @Test
+        @DisplayName("Shared buffers are visible to other threads")
+        void shareBetweenThreads() throws Exception {
+            byte[] buffer = pool.acquire(256);
+            pool.release(buffer);
+            assertSame(buffer, CompletableFuture.supplyAsync(() -> pool.acquire(256)).get());
+        }
+    }
+
+    @Nested
+    class ThreadLocalPoolTest {
+
+        @BeforeEach
+        void setUp() {
+            pool = BufferPool.threadLocal(2);
+        }
+
+        @Test
+        @DisplayName("Released buffer is reused by the same thread only")
+        void reuseBuffer() throws Exception {
+            byte[] buffer = pool.acquire(256);
+            pool.release(buffer);
+            assertNotSame(buffer, CompletableFuture.supplyAsync(() -> pool.acquire(256)).get());
+            assertSame(buffer, pool.acquire(256));
+            assertEquals(1, pool.getHits());
+            assertEquals(2, pool.getMisses());
+        }
+    }
+
+    @Nested
+    class PooledStreamsTest {
+
+        @BeforeEach
+        void setUp() {
+            pool = BufferPool.shared(4);
+        }
+
+        @Test
+        @DisplayName("Input stream gives buffer back on close")
+        void readThroughPooledBuffer() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                BufferedInputStream testedStream =
+                        new BufferedInputStream(new java.io.ByteArrayInputStream(initArr), 100, pool);
+                assertArrayEquals(initArr, testedStream.readAllBytes());
+                testedStream.close();
+                testedStream.close();
+            }
+            assertEquals(1, pool.getMisses());
+            assertEquals(2, pool.getHits());
+        }
+
+        @Test
+        @DisplayName("Output stream gives buffer back on close")
+        void writeThroughPooledBuffer() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+                BufferedOuputStream testedStream = new BufferedOuputStream(target, 100, pool);
+                testedStream.write(initArr);
+                testedStream.close();
+                testedStream.close();
+                assertArrayEquals(initArr, target.toByteArray());
+                assertThrows(IOException.class, () -> {
+                    testedStream.write(1);
+                });
+            }
+            assertEquals(1, pool.getMisses());
+            assertEquals(2, pool.getHits());
+        }
+
+        @Test
+        @DisplayName("Input stream without underlying stream gives buffer back on close")
+        void closeWithoutInnerStream() throws Exception {
+            BufferedInputStream testedStream = new BufferedInputStream(null, 100, pool);
+            testedStream.close();
+            testedStream.close();
+            pool.acquire(100);
+            assertEquals(1, pool.getHits());
+        }
+
+        @Test
+        @DisplayName("Output stream gives buffer back when closing fails")
+        void closeWithFailure() throws Exception {
+            BufferedOuputStream testedStream = new BufferedOuputStream(new java.io.ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    throw new IOException("Broken");
+                }
+            }, 100, pool);
+            testedStream.write(initArr);
+            assertThrows(IOException.class, testedStream::close);
+            pool.acquire(100);
+            assertEquals(1, pool.getHits());
+        }
+    }
+
+    @Test
+    @DisplayName("Try to acquire with wrong capacity")
+    void acquireWithWrongCapacity() throws Exception {
+        pool = BufferPool.shared(1);
+        assertThrows(IllegalArgumentException.class, () -> {
+            pool.acquire(0);
+        });
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong bound")
+    void createWithWrongBound() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> {
+            BufferPool.threadLocal(0);
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedChannelInputStreamTest {
+    final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    @TempDir
+    Path tempDir;
+
+    BufferedChannelInputStream testedStream;
+    java.io.BufferedInputStream nativeStream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = tempDir.resolve("data.bin");
+        Files.write(file, initArr);
+        testedStream = new BufferedChannelInputStream(FileChannel.open(file, StandardOpenOption.READ), 4);
+        nativeStream = new java.io.BufferedInputStream(Files.newInputStream(file), 4);
+    }
+
+    @Test
+    @DisplayName("Read bytes")
+    void readBytes() throws Exception {
+        for (int i = 0; i <= initArr.length; i++) {
+            assertEquals(nativeStream.read(), testedStream.read());
+        }
+    }
+
+    @Test
+    @DisplayName("Read into array")
+    void readIntoArray() throws Exception {
+        assertEquals(nativeStream.read(), testedStream.read());
+        byte[] testedArr = testedStream.readAllBytes();
+        byte[] nativeArr = nativeStream.readAllBytes();
+        assertArrayEquals(nativeArr, testedArr);
+        assertEquals(-1, testedStream.read(new byte[4], 0, 4));
+    }
+
+    @Test
+    @DisplayName("Read into buffers")
+    void readIntoByteBuffers() throws Exception {
+        ByteBuffer small = ByteBuffer.allocate(3);
+        assertEquals(3, testedStream.read(small));
+        ByteBuffer big = ByteBuffer.allocateDirect(initArr.length);
+        big.put(small.flip());
+        while (big.hasRemaining() && testedStream.read(big) >= 0) {
+        }
+        byte[] testedArr = new byte[initArr.length];
+        big.flip().get(testedArr);
+        assertArrayEquals(initArr, testedArr);
+        assertEquals(-1, testedStream.read(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    @DisplayName("Skip and check available")
+    void skipBytes() throws Exception {
+        assertEquals(nativeStream.read(), testedStream.read());
+        assertEquals(nativeStream.available(), testedStream.available());
+        assertEquals(6, testedStream.skip(6));
+        for (long skipped = 0; skipped < 6; ) {
+            skipped += nativeStream.skip(6 - skipped);
+        }
+        assertEquals(nativeStream.read(), testedStream.read());
+        assertEquals(nativeStream.available(), testedStream.available());
+        assertEquals(6, testedStream.skip(100));
+        assertEquals(-1, testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Skip over not a file channel")
+    void skipOverStreamChannel() throws Exception {
+        testedStream = new BufferedChannelInputStream(
+                Channels.newChannel(new java.io.ByteArrayInputStream(initArr)), 4);
+        assertEquals(9, testedStream.skip(9));
+        assertEquals(initArr[9], testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Read after close")
+    void readWithError() throws Exception {
+        testedStream.close();
+        assertFalse(testedStream.isOpen());
+        assertThrows(IOException.class, () -> {
+            testedStream.read();
+        });
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong size")
+    void createWithWrongCapacity() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new BufferedChannelInputStream(null, 0);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        testedStream.close();
+        nativeStream.close();
+    }
+}
@@ -1,8 +1,16 @@
 package net.testlab.io;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32C;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -114,6 +122,82 @@ class BufferedIOuputStreamTest {
 
     }
 
+    @Nested
+    class BulkWritingTest {
+
+        final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+        int flushCount;
+        int writeCount;
+
+        @BeforeEach
+        void setUp() {
+            flushCount = 0;
+            writeCount = 0;
+            testedByteStream = new java.io.ByteArrayOutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    writeCount++;
+                    super.write(b, off, len);
+                }
+
+                @Override
+                public void flush() {
+                    flushCount++;
+                }
+            };
+            testedStream = new BufferedOuputStream(testedByteStream, 4);
+
+            nativeByteStream = new java.io.ByteArrayOutputStream();
+            nativeStream = new java.io.BufferedOutputStream(nativeByteStream, 4);
+        }
+
+        @Test
+        @DisplayName("Write arrays smaller than buffer")
+        void writeSmallArrays() throws Exception {
+            for (int i = 0; i < initArr.length; i += 3) {
+                testedStream.write(initArr, i, Math.min(3, initArr.length - i));
+                nativeStream.write(initArr, i, Math.min(3, initArr.length - i));
+                assertArrayEquals(nativeByteStream.toByteArray(), testedByteStream.toByteArray());
+            }
+            testedStream.flush();
+            nativeStream.flush();
+            assertArrayEquals(nativeByteStream.toByteArray(), testedByteStream.toByteArray());
+            assertArrayEquals(initArr, testedByteStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write array bigger than buffer")
+        void writeBigArray() throws Exception {
+            testedStream.write(initArr[0]);
+            nativeStream.write(initArr[0]);
+            testedStream.write(initArr, 1, initArr.length - 1);
+            nativeStream.write(initArr, 1, initArr.length - 1);
+            assertArrayEquals(nativeByteStream.toByteArray(), testedByteStream.toByteArray());
+            assertArrayEquals(initArr, testedByteStream.toByteArray());
+            assertEquals(2, writeCount);
+        }
+
+        @Test
+        @DisplayName("Filling buffer does not flush underlying stream")
+        void fillBufferWithoutFlush() throws Exception {
+            for (byte b : initArr) {
+                testedStream.write(b);
+            }
+            testedStream.write(initArr, 0, 3);
+            testedStream.write(initArr, 0, initArr.length);
+            assertEquals(0, flushCount);
+            testedStream.flush();
+            assertEquals(1, flushCount);
+        }
+
+        @AfterEach
+        void cleanUp() throws IOException {
+            testedStream.close();
+            nativeStream.close();
+        }
+    }
+
+
     @Test
     @DisplayName("Try to create with wrong size")
     void createWithWrongCapacity() throws Exception {
@@ -164,4 +248,126 @@ class BufferedIOuputStreamTest {
         );
     }
 
-}
\ No newline at end of file
+    @Nested
+    class ByteBufferWritingTest {
+        @TempDir
+        Path directory;
+
+        byte[] message(int length, int seed) {
+            byte[] bytes = new byte[length];
+            new Random(seed).nextBytes(bytes);
+            return bytes;
+        }
+
+        @Test
+        @DisplayName("Coalesce small byte buffers in the buffer")
+        void writeSmallBuffers() throws Exception {
+            testedByteStream = new java.io.ByteArrayOutputStream();
+            testedStream = new BufferedOuputStream(testedByteStream, 16);
+            ByteBuffer header = ByteBuffer.wrap(initArr, 0, 3);
+            ByteBuffer body = ByteBuffer.allocateDirect(4).put(initArr, 3, 4).flip();
+            ByteBuffer trailer = ByteBuffer.wrap(initArr, 7, 1);
+            testedStream.write(new ByteBuffer[]{header, body, trailer});
+            assertEquals(0, testedByteStream.size());
+            assertFalse(header.hasRemaining() || body.hasRemaining() || trailer.hasRemaining());
+            testedStream.flush();
+            assertArrayEquals(initArr, testedByteStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write large heap and direct byte buffers into a stream")
+        void writeLargeBuffers() throws Exception {
+            byte[] first = message(100, 1);
+            byte[] second = message(50, 2);
+            testedByteStream = new java.io.ByteArrayOutputStream();
+            testedStream = new BufferedOuputStream(testedByteStream, 16);
+            testedStream.write(initArr, 0, 5);
+            testedStream.write(ByteBuffer.wrap(first));
+            testedStream.write(ByteBuffer.allocateDirect(50).put(second).flip());
+            testedStream.flush();
+
+            nativeByteStream = new java.io.ByteArrayOutputStream();
+            nativeByteStream.write(initArr, 0, 5);
+            nativeByteStream.write(first);
+            nativeByteStream.write(second);
+            assertArrayEquals(nativeByteStream.toByteArray(), testedByteStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Gather byte buffers into a file")
+        void gatherIntoFile() throws Exception {
+            byte[] header = message(10, 3);
+            byte[] body = message(5000, 4);
+            byte[] trailer = message(7, 5);
+            Path file = directory.resolve("gathered");
+            try (ChecksumOutputStream out = new ChecksumOutputStream(
+                    new FileOutputStream(file.toFile()), 64, new CRC32C())) {
+                out.write(initArr);
+                out.write(new ByteBuffer[]{ByteBuffer.wrap(header),
+                        ByteBuffer.allocateDirect(body.length).put(body).flip(), ByteBuffer.wrap(trailer)});
+                out.write(ByteBuffer.allocateDirect(body.length).put(body).flip());
+                out.flush();
+
+                nativeByteStream = new java.io.ByteArrayOutputStream();
+                nativeByteStream.write(initArr);
+                nativeByteStream.write(header);
+                nativeByteStream.write(body);
+                nativeByteStream.write(trailer);
+                nativeByteStream.write(body);
+                CRC32C expected = new CRC32C();
+                expected.update(nativeByteStream.toByteArray());
+                assertEquals(expected.getValue(), out.getValue());
+            }
+            assertArrayEquals(nativeByteStream.toByteArray(), Files.readAllBytes(file));
+        }
+
+        @Test
+        @DisplayName("Fail on a channel which writes nothing")
+        void gatherIntoStalledChannel() throws Exception {
+            class StalledChannelStream extends java.io.OutputStream implements GatheringByteChannel {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public long write(ByteBuffer[] srcs, int offset, int length) {
+                    return 0;
+                }
+
+                @Override
+                public long write(ByteBuffer[] srcs) {
+                    return 0;
+                }
+
+                @Override
+                public int write(ByteBuffer src) {
+                    return 0;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+            }
+            ChecksumOutputStream out = new ChecksumOutputStream(new StalledChannelStream(), 16, new CRC32C());
+            out.write(initArr, 0, 3);
+            ByteBuffer body = ByteBuffer.allocateDirect(100).put(message(100, 6)).flip();
+            assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), () -> {
+                assertThrows(IOException.class, () -> out.write(body));
+                assertThrows(IOException.class, () -> out.write(new ByteBuffer[]{body}));
+            });
+            assertEquals(new CRC32C().getValue(), out.getValue());
+        }
+
+        @Test
+        @DisplayName("Write byte buffers into closed stream")
+        void writeClosed() throws Exception {
+            testedStream = new BufferedOuputStream(new java.io.ByteArrayOutputStream());
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.write(ByteBuffer.wrap(initArr)));
+            assertThrows(IOException.class, () -> testedStream.write(new ByteBuffer[]{ByteBuffer.wrap(initArr)}));
+            assertThrows(NullPointerException.class, () -> testedStream.write(new ByteBuffer[]{null}));
+        }
+    }
+
+}
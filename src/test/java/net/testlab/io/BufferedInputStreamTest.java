@@ -1,8 +1,20 @@
 package net.testlab.io;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,6 +106,180 @@ class BufferedInputStreamTest {
     }
 
 
+    @Nested
+    class ReadingIntoArrayTest {
+        final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+        byte[] testedArr;
+        int testedCount;
+        byte[] nativeArr;
+        int nativeCount;
+
+        @BeforeEach
+        void setUp() {
+            testedByteStream = new java.io.ByteArrayInputStream(initArr);
+            testedStream = new BufferedInputStream(testedByteStream, 4);
+
+            nativeByteStream = new java.io.ByteArrayInputStream(initArr);
+            nativeStream = new java.io.BufferedInputStream(nativeByteStream, 4);
+        }
+
+        @Test
+        @DisplayName("Read (byte[6],1,3) from buffer")
+        void readBytesSmallerThanBuffer() throws Exception {
+            testedArr = new byte[6];
+            testedCount = testedStream.read(testedArr, 1, 3);
+            nativeArr = new byte[6];
+            nativeCount = nativeStream.read(nativeArr, 1, 3);
+            assertAll( //
+                    () -> assertArrayEquals(nativeArr, testedArr),
+                    () -> assertEquals(nativeCount, testedCount)
+            );
+        }
+
+        @Test
+        @DisplayName("Read (byte[32],0,32) bigger than buffer")
+        void readBytesBiggerThanBuffer() throws Exception {
+            testedArr = new byte[32];
+            testedCount = testedStream.read(testedArr, 0, 32);
+            nativeArr = new byte[32];
+            nativeCount = nativeStream.read(nativeArr, 0, 32);
+            assertAll( //
+                    () -> assertArrayEquals(nativeArr, testedArr),
+                    () -> assertEquals(nativeCount, testedCount),
+                    () -> assertEquals(initArr.length, testedCount)
+            );
+        }
+
+        @Test
+        @DisplayName("Read byte then rest of the data")
+        void readByteThenBytes() throws Exception {
+            assertEquals(nativeStream.read(), testedStream.read());
+            testedArr = new byte[16];
+            testedCount = testedStream.read(testedArr, 0, 16);
+            nativeArr = new byte[16];
+            nativeCount = nativeStream.read(nativeArr, 0, 16);
+            assertAll( //
+                    () -> assertArrayEquals(nativeArr, testedArr),
+                    () -> assertEquals(nativeCount, testedCount),
+                    () -> assertEquals(-1, testedStream.read(testedArr, 0, 16))
+            );
+        }
+
+        @Test
+        @DisplayName("Read negative bytes")
+        void readNegativeBytes() throws Exception {
+            testedArr = new byte[10];
+            testedStream.read(testedArr, 0, 10);
+            nativeArr = new byte[10];
+            nativeStream.read(nativeArr, 0, 10);
+            for (int i = 10; i < initArr.length; i++) {
+                assertEquals(nativeStream.read(), testedStream.read());
+            }
+            assertEquals(-1, testedStream.read());
+        }
+
+        @AfterEach
+        void cleanUp() throws IOException {
+            testedStream.close();
+            nativeStream.close();
+        }
+    }
+
+
+    @Nested
+    class AdaptiveCapacityTest {
+        final byte[] initArr = new byte[64 * 1024];
+
+        @Test
+        @DisplayName("Buffer grows when refills fill it")
+        void growBuffer() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr), 16);
+            testedStream.setAdaptiveCapacity(16, 1024);
+            for (int i = 0; i < initArr.length; i++) {
+                assertEquals(0, testedStream.read());
+            }
+            assertEquals(-1, testedStream.read());
+            assertEquals(1024, testedStream.getCapacity());
+        }
+
+        @Test
+        @DisplayName("Buffer shrinks when refills are sparse")
+        void shrinkBuffer() throws Exception {
+            java.io.InputStream trickle = new java.io.ByteArrayInputStream(initArr) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, 10));
+                }
+            };
+            testedStream = new BufferedInputStream(trickle, 1024);
+            testedStream.setAdaptiveCapacity(64, 1024);
+            byte[] testedArr = new byte[8];
+            for (int i = 0; i < 200; i++) {
+                testedStream.read(testedArr, 0, testedArr.length);
+            }
+            assertEquals(64, testedStream.getCapacity());
+        }
+
+        @Test
+        @DisplayName("Pooled buffer is exchanged with the pool")
+        void resizePooledBuffer() throws Exception {
+            BufferPool pool = BufferPool.shared(4);
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr), 100, pool);
+            testedStream.setAdaptiveCapacity(100, 500);
+            for (int i = 0; i < initArr.length; i++) {
+                testedStream.read();
+            }
+            assertEquals(512, testedStream.getCapacity());
+            testedStream.close();
+            assertEquals(3, pool.getMisses());
+            assertEquals(512, pool.acquire(300).length);
+            assertEquals(1, pool.getHits());
+        }
+
+        @Test
+        @DisplayName("Buffer shrinks with unread bytes left by a scan")
+        void shrinkAfterScan() throws Exception {
+            byte[] lines = new byte[1000];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = (byte) (i % 60 == 59 ? '\n' : 'a' + i % 26);
+            }
+            java.io.InputStream trickle = new java.io.ByteArrayInputStream(lines) {
+                @Override
+                public synchronized int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, 4));
+                }
+            };
+            testedStream = new BufferedInputStream(trickle, 64);
+            testedStream.setAdaptiveCapacity(8, 64);
+            for (int i = 0; i < 16; i++) {
+                assertEquals(lines[i], testedStream.read());
+            }
+            ByteBuffer line = testedStream.readLine();
+            assertEquals(43, line.remaining());
+            assertEquals(lines[60], testedStream.read());
+            for (int i = 61; i < lines.length; i++) {
+                assertEquals(lines[i], testedStream.read());
+            }
+            assertEquals(-1, testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Try to set wrong bounds")
+        void setWrongBounds() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr));
+            assertThrows(IllegalArgumentException.class, () -> {
+                testedStream.setAdaptiveCapacity(100, 10);
+            });
+        }
+
+        @AfterEach
+        void cleanUp() throws IOException {
+            testedStream.close();
+        }
+    }
+
+
     @Test
     @DisplayName("Try to create with wrong size")
     void createWithWrongCapacity() throws Exception {
@@ -126,4 +312,207 @@ class BufferedInputStreamTest {
         );
     }
 
-}
\ No newline at end of file
+    @Nested
+    class ScanningTest {
+        final String text = "first\nsecond line\r\n\na much longer line than the buffer\nlast";
+
+        List<String> nativeLines() throws IOException {
+            BufferedReader reader = new BufferedReader(new StringReader(text));
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+
+        List<String> testedLines(int capacity) throws IOException {
+            testedStream = new BufferedInputStream(
+                    new java.io.ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), capacity);
+            List<String> lines = new ArrayList<>();
+            ByteBuffer line;
+            while ((line = testedStream.readLine()) != null) {
+                lines.add(StandardCharsets.US_ASCII.decode(line).toString());
+            }
+            return lines;
+        }
+
+        @Test
+        @DisplayName("Read lines like BufferedReader")
+        void readLines() throws Exception {
+            for (int capacity : new int[]{1, 2, 7, 16, 8192}) {
+                assertEquals(nativeLines(), testedLines(capacity), "capacity " + capacity);
+            }
+        }
+
+        @Test
+        @DisplayName("Read records as views of the buffer")
+        void readViews() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(new byte[]{1, 2, 0, 3, 0}));
+            ByteBuffer record = testedStream.readUntil((byte) 0);
+            assertTrue(record.isReadOnly());
+            assertEquals(ByteBuffer.wrap(new byte[]{1, 2}), record);
+            assertEquals(ByteBuffer.wrap(new byte[]{3}), testedStream.readUntil((byte) 0));
+            assertNull(testedStream.readUntil((byte) 0));
+        }
+
+        @Test
+        @DisplayName("Mix scanning and reading")
+        void mixWithReads() throws Exception {
+            byte[] data = new byte[1000];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) (i % 10 == 9 ? ';' : i % 10);
+            }
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 32);
+            for (int i = 0; i < data.length; i += 10) {
+                assertEquals(0, testedStream.read());
+                ByteBuffer record = testedStream.readUntil((byte) ';');
+                assertEquals(ByteBuffer.wrap(data, i + 1, 8), record);
+            }
+            assertEquals(-1, testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Read empty records")
+        void readEmpty() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(new byte[]{'\n', '\n'}));
+            assertEquals(0, testedStream.readLine().remaining());
+            assertEquals(0, testedStream.readLine().remaining());
+            assertNull(testedStream.readLine());
+        }
+
+        @Test
+        @DisplayName("Scan closed stream")
+        void scanClosed() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr));
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.readLine());
+        }
+    }
+
+    @Nested
+    class TransferTest {
+        @TempDir
+        Path directory;
+
+        @Test
+        @DisplayName("Transfer rest of the stream after reading")
+        void transferAfterReading() throws Exception {
+            byte[] data = new byte[10_000];
+            new Random(5).nextBytes(data);
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 100);
+            nativeStream = new java.io.BufferedInputStream(new java.io.ByteArrayInputStream(data), 100);
+            assertEquals(nativeStream.read(), testedStream.read());
+            java.io.ByteArrayOutputStream testedTarget = new java.io.ByteArrayOutputStream();
+            java.io.ByteArrayOutputStream nativeTarget = new java.io.ByteArrayOutputStream();
+            assertEquals(nativeStream.transferTo(nativeTarget), testedStream.transferTo(testedTarget));
+            assertArrayEquals(nativeTarget.toByteArray(), testedTarget.toByteArray());
+            assertEquals(-1, testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Transfer file into file")
+        void transferFile() throws Exception {
+            byte[] data = new byte[100_000];
+            new Random(6).nextBytes(data);
+            Path source = Files.write(directory.resolve("source"), data);
+            Path target = directory.resolve("target");
+            try (FileInputStream in = new FileInputStream(source.toFile());
+                 FileOutputStream out = new FileOutputStream(target.toFile())) {
+                testedStream = new BufferedInputStream(in, 1000);
+                byte[] head = new byte[10];
+                assertEquals(10, testedStream.read(head));
+                out.write(head);
+                assertEquals(data.length - 10, testedStream.transferTo(out));
+                assertEquals(-1, testedStream.read());
+            }
+            assertArrayEquals(data, Files.readAllBytes(target));
+        }
+
+        @Test
+        @DisplayName("Transfer closed stream")
+        void transferClosed() throws Exception {
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr));
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.transferTo(new java.io.ByteArrayOutputStream()));
+        }
+    }
+
+    @Nested
+    class MarkAndSkipTest {
+        byte[] data;
+
+        @BeforeEach
+        void setUp() {
+            data = new byte[1000];
+            new Random(7).nextBytes(data);
+            testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(data), 16);
+            nativeStream = new java.io.BufferedInputStream(new java.io.ByteArrayInputStream(data), 16);
+        }
+
+        @Test
+        @DisplayName("Reset to mark after reading past the buffer")
+        void resetAfterReading() throws Exception {
+            assertTrue(testedStream.markSupported());
+            byte[] tested = new byte[300];
+            byte[] expected = new byte[300];
+            testedStream.read(tested, 0, 5);
+            testedStream.mark(500);
+            nativeStream.read(expected, 0, 5);
+            nativeStream.mark(500);
+            assertEquals(nativeStream.readNBytes(expected, 0, 300), testedStream.readNBytes(tested, 0, 300));
+            assertArrayEquals(expected, tested);
+            testedStream.reset();
+            nativeStream.reset();
+            assertEquals(nativeStream.read(), testedStream.read());
+            assertArrayEquals(nativeStream.readAllBytes(), testedStream.readAllBytes());
+        }
+
+        @Test
+        @DisplayName("Reset to mark after peeking with primitives and scanning")
+        void resetAfterPeeking() throws Exception {
+            testedStream.mark(100);
+            BinaryReader reader = new BinaryReader(testedStream);
+            long first = reader.readLong();
+            testedStream.readUntil(data[40]);
+            testedStream.reset();
+            assertEquals(first, reader.readLong());
+        }
+
+        @Test
+        @DisplayName("Reset to invalid mark")
+        void resetInvalid() throws Exception {
+            assertThrows(IOException.class, () -> testedStream.reset());
+            testedStream.mark(20);
+            testedStream.readNBytes(100);
+            assertThrows(IOException.class, () -> testedStream.reset());
+        }
+
+        @Test
+        @DisplayName("Skip buffered bytes and the rest")
+        void skipBytes() throws Exception {
+            assertEquals(data[0] & 0xFF, testedStream.read());
+            assertEquals(15, testedStream.available() - (data.length - 16));
+            assertEquals(500, testedStream.skip(500));
+            assertEquals(data[501] & 0xFF, testedStream.read());
+            testedStream.mark(1000);
+            assertEquals(300, testedStream.skip(300));
+            assertEquals(data[802] & 0xFF, testedStream.read());
+            testedStream.reset();
+            assertEquals(data[502] & 0xFF, testedStream.read());
+            assertEquals(data.length - 503, testedStream.skip(Long.MAX_VALUE));
+            assertEquals(0, testedStream.available());
+            assertEquals(-1, testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Skip and mark closed stream")
+        void useClosed() throws Exception {
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.skip(1));
+            assertThrows(IOException.class, () -> testedStream.available());
+            assertThrows(IOException.class, () -> testedStream.reset());
+        }
+    }
+
+}
@@ -221,6 +221,61 @@ class ByteArrayInputStreamTest {
 
     }
 
+    @Nested
+    class BulkOperationsTest {
+
+        final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+        ByteArrayInputStream testedStream;
+        java.io.ByteArrayInputStream nativeStream;
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new ByteArrayInputStream(initArr, 1, 12);
+            nativeStream = new java.io.ByteArrayInputStream(initArr, 1, 12);
+        }
+
+        @Test
+        @DisplayName("Read negative bytes")
+        void readNegativeBytes() throws Exception {
+            for (int i = 0; i < 13; i++) {
+                assertEquals(nativeStream.read(), testedStream.read());
+            }
+        }
+
+        @Test
+        @DisplayName("Skip and check available")
+        void skipBytes() throws Exception {
+            assertEquals(nativeStream.available(), testedStream.available());
+            assertEquals(nativeStream.skip(4), testedStream.skip(4));
+            assertEquals(nativeStream.skip(-4), testedStream.skip(-4));
+            assertEquals(nativeStream.available(), testedStream.available());
+            assertEquals(nativeStream.read(), testedStream.read());
+            assertEquals(nativeStream.skip(100), testedStream.skip(100));
+            assertEquals(nativeStream.available(), testedStream.available());
+            assertEquals(nativeStream.read(), testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Read all bytes")
+        void readAllBytes() throws Exception {
+            assertEquals(nativeStream.read(), testedStream.read());
+            assertArrayEquals(nativeStream.readAllBytes(), testedStream.readAllBytes());
+            assertArrayEquals(nativeStream.readAllBytes(), testedStream.readAllBytes());
+        }
+
+        @Test
+        @DisplayName("Transfer to another stream")
+        void transferTo() throws Exception {
+            assertEquals(nativeStream.read(), testedStream.read());
+            java.io.ByteArrayOutputStream testedTarget = new java.io.ByteArrayOutputStream();
+            java.io.ByteArrayOutputStream nativeTarget = new java.io.ByteArrayOutputStream();
+            assertEquals(nativeStream.transferTo(nativeTarget), testedStream.transferTo(testedTarget));
+            assertArrayEquals(nativeTarget.toByteArray(), testedTarget.toByteArray());
+            assertEquals(nativeStream.read(), testedStream.read());
+        }
+    }
+
     @Nested
     class CreatingTest {
         @Test
@@ -65,6 +65,43 @@ class ByteArrayOutputStreamTest {
             assertArrayEquals(testedStream.toByteArray(), nativeStream.toByteArray());
         }
 
+        @Test
+        @DisplayName("Write with zero buf size")
+        void writeWithZeroCapacity() throws Exception {
+            testedStream = new ByteArrayOutputStream(0);
+            for (byte b : initArr) {
+                testedStream.write(b);
+            }
+            nativeStream = new java.io.ByteArrayOutputStream(0);
+            for (byte b : initArr) {
+                nativeStream.write(b);
+            }
+            assertArrayEquals(testedStream.toByteArray(), nativeStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write arrays")
+        void writeArrays() throws Exception {
+            testedStream = new ByteArrayOutputStream(3);
+            nativeStream = new java.io.ByteArrayOutputStream(3);
+            testedStream.write(initArr, 1, 2);
+            nativeStream.write(initArr, 1, 2);
+            testedStream.write(initArr);
+            nativeStream.write(initArr);
+            assertArrayEquals(testedStream.toByteArray(), nativeStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write to another stream")
+        void writeToStream() throws Exception {
+            testedStream.write(initArr);
+            nativeStream.write(initArr);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+        }
+
         @AfterEach
         void cleanUp() throws IOException {
             testedStream.close();
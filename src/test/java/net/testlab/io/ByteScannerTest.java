@@ -0,0 +1,46 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteScannerTest {
+
+    int nativeIndexOf(byte[] array, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    @DisplayName("Find byte at every position of every range")
+    void findEverywhere() {
+        byte[] array = new byte[40];
+        for (byte value : new byte[]{0, 1, '\n', 127, -128, -1}) {
+            for (int at = 0; at < array.length; at++) {
+                java.util.Arrays.fill(array, (byte) (value + 1));
+                array[at] = value;
+                for (int from = 0; from < array.length; from += 3) {
+                    for (int to = from; to <= array.length; to += 5) {
+                        assertEquals(nativeIndexOf(array, from, to, value),
+                                ByteScanner.indexOf(array, from, to, value));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Find first of neighbouring bytes")
+    void findFirst() {
+        // the byte above a match must not be reported before it
+        byte[] array = {5, 5, 5, 1, 0, 1, 0, 0, 0, 0};
+        assertEquals(4, ByteScanner.indexOf(array, 0, array.length, (byte) 0));
+        assertEquals(3, ByteScanner.indexOf(array, 0, array.length, (byte) 1));
+        assertEquals(-1, ByteScanner.indexOf(array, 0, array.length, (byte) 2));
+    }
+
+}
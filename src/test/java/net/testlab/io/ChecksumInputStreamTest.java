@@ -0,0 +1,87 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChecksumInputStreamTest {
+
+    byte[] data;
+
+    ChecksumInputStream testedStream;
+    CheckedInputStream nativeStream;
+
+    @BeforeEach
+    void setUp() {
+        data = new byte[50_000];
+        new Random(3).nextBytes(data);
+    }
+
+    long nativeValue(Checksum checksum) throws Exception {
+        nativeStream = new CheckedInputStream(new java.io.ByteArrayInputStream(data), checksum);
+        nativeStream.readAllBytes();
+        return nativeStream.getChecksum().getValue();
+    }
+
+    @Test
+    @DisplayName("Compute CRC32C while reading bytes and arrays")
+    void computeCrc32c() throws Exception {
+        testedStream = new ChecksumInputStream(new java.io.ByteArrayInputStream(data), 1000, new CRC32C());
+        testedStream.read();
+        testedStream.read(new byte[10]);
+        // large read bypasses the buffer
+        testedStream.read(new byte[5000]);
+        while (testedStream.read() >= 0) {
+            // read the rest byte by byte
+        }
+        assertEquals(nativeValue(new CRC32C()), testedStream.getValue());
+    }
+
+    @Test
+    @DisplayName("Compute Adler32 while scanning")
+    void computeAdler32() throws Exception {
+        testedStream = new ChecksumInputStream(new java.io.ByteArrayInputStream(data), new Adler32());
+        while (testedStream.readUntil((byte) 0) != null) {
+            // scan the records
+        }
+        assertEquals(nativeValue(new Adler32()), testedStream.getValue());
+        assertTrue(testedStream.getChecksum() instanceof Adler32);
+    }
+
+    @Test
+    @DisplayName("Compute CRC32C while transferring")
+    void computeWhileTransferring() throws Exception {
+        testedStream = new ChecksumInputStream(new java.io.ByteArrayInputStream(data), 1000, new CRC32C());
+        testedStream.read();
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        assertEquals(data.length - 1, testedStream.transferTo(target));
+        assertEquals(nativeValue(new CRC32C()), testedStream.getValue());
+    }
+
+    @Test
+    @DisplayName("Compute CRC32C while skipping")
+    void computeWhileSkipping() throws Exception {
+        testedStream = new ChecksumInputStream(new java.io.ByteArrayInputStream(data), 1000, new CRC32C());
+        testedStream.read(new byte[10]);
+        assertEquals(0, testedStream.skip(0));
+        assertEquals(20_000, testedStream.skip(20_000));
+        testedStream.read();
+        assertEquals(data.length - 20_011, testedStream.skip(data.length));
+        assertEquals(-1, testedStream.read());
+        assertEquals(nativeValue(new CRC32C()), testedStream.getValue());
+    }
+
+    @Test
+    @DisplayName("Create with null checksum")
+    void createWithNull() {
+        assertThrows(NullPointerException.class,
+                () -> new ChecksumInputStream(new java.io.ByteArrayInputStream(data), null));
+    }
+
+}
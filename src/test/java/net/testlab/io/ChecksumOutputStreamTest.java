@@ -0,0 +1,64 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChecksumOutputStreamTest {
+
+    byte[] data;
+
+    ChecksumOutputStream testedStream;
+    CheckedOutputStream nativeStream;
+
+    @BeforeEach
+    void setUp() {
+        data = new byte[50_000];
+        new Random(4).nextBytes(data);
+    }
+
+    @Test
+    @DisplayName("Compute CRC32C while writing bytes and arrays")
+    void computeCrc32c() throws Exception {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        testedStream = new ChecksumOutputStream(target, 1000, new CRC32C());
+        nativeStream = new CheckedOutputStream(new java.io.ByteArrayOutputStream(), new CRC32C());
+        testedStream.write(data, 0, 10);
+        testedStream.write(data[10]);
+        // large write bypasses the buffer
+        testedStream.write(data, 11, 5000);
+        testedStream.write(data, 5011, data.length - 5011);
+        nativeStream.write(data);
+        testedStream.flush();
+        assertEquals(nativeStream.getChecksum().getValue(), testedStream.getValue());
+        assertArrayEquals(data, target.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Compute Adler32 of primitives written directly into the buffer")
+    void computeAdler32() throws Exception {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        testedStream = new ChecksumOutputStream(target, new Adler32());
+        BinaryWriter writer = new BinaryWriter(testedStream);
+        for (int i = 0; i < 1000; i++) {
+            writer.writeLong(i * 31L);
+        }
+        testedStream.close();
+        Adler32 expected = new Adler32();
+        expected.update(target.toByteArray());
+        assertEquals(expected.getValue(), testedStream.getValue());
+    }
+
+    @Test
+    @DisplayName("Create with null checksum")
+    void createWithNull() {
+        assertThrows(NullPointerException.class,
+                () -> new ChecksumOutputStream(new java.io.ByteArrayOutputStream(), null));
+    }
+
+}
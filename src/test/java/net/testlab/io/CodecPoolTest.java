@@ -0,0 +1,46 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecPoolTest {
+
+    CodecPool pool = new CodecPool(1);
+
+    @Test
+    @DisplayName("Reuse released deflater of the same kind")
+    void reuseDeflater() {
+        Deflater deflater = pool.acquireDeflater(5, true);
+        deflater.setInput(new byte[]{1, 2, 3});
+        pool.releaseDeflater(deflater, 5, true);
+        assertNotSame(deflater, pool.acquireDeflater(5, false));
+        assertNotSame(deflater, pool.acquireDeflater(4, true));
+        Deflater reused = pool.acquireDeflater(5, true);
+        assertSame(deflater, reused);
+        assertTrue(reused.needsInput());
+    }
+
+    @Test
+    @DisplayName("Reuse released inflater of the same kind")
+    void reuseInflater() {
+        Inflater inflater = pool.acquireInflater(true);
+        pool.releaseInflater(inflater, true);
+        pool.releaseInflater(new Inflater(true), true);
+        assertNotSame(inflater, pool.acquireInflater(false));
+        assertSame(inflater, pool.acquireInflater(true));
+        assertNotSame(inflater, pool.acquireInflater(true));
+    }
+
+    @Test
+    @DisplayName("Use wrong parameters")
+    void useWrongParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new CodecPool(0));
+        assertThrows(IllegalArgumentException.class, () -> pool.acquireDeflater(10, true));
+        assertThrows(NullPointerException.class, () -> pool.releaseInflater(null, true));
+    }
+
+}
@@ -0,0 +1,205 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentByteArrayOutputStreamTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    ConcurrentByteArrayOutputStream testedStream;
+    java.io.ByteArrayOutputStream nativeStream;
+
+    @Nested
+    class SingleThreadTest {
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new ConcurrentByteArrayOutputStream(1000, 3);
+            nativeStream = new java.io.ByteArrayOutputStream();
+        }
+
+        @Test
+        @DisplayName("Write nothing")
+        void writeNothing() {
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(0, testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write bytes and arrays over segment size")
+        void writeBytesAndArrays() throws Exception {
+            testedStream.write(initArr[0]);
+            nativeStream.write(initArr[0]);
+            testedStream.write(initArr, 1, initArr.length - 1);
+            nativeStream.write(initArr, 1, initArr.length - 1);
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write over capacity")
+        void writeOverCapacity() throws Exception {
+            testedStream = new ConcurrentByteArrayOutputStream(10, 4);
+            testedStream.write(initArr, 0, 8);
+            assertThrows(IOException.class, () -> testedStream.write(initArr, 0, 3));
+            testedStream.write(initArr, 0, 2);
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertEquals(10, testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Create with wrong parameters")
+        void createWithWrongParameters() {
+            assertThrows(IllegalArgumentException.class, () -> new ConcurrentByteArrayOutputStream(0));
+            assertThrows(IllegalArgumentException.class, () -> new ConcurrentByteArrayOutputStream(10, 0));
+            assertThrows(IllegalArgumentException.class, () -> new ConcurrentByteArrayOutputStream(Long.MAX_VALUE, 1));
+        }
+    }
+
+    @Nested
+    class ManyThreadsTest {
+
+        static final int THREADS = 16;
+        static final int RECORDS = 1000;
+        static final int RECORD_LENGTH = 37;
+
+        void assertWholeRecords(byte[] bytes) {
+            assertEquals(0, bytes.length % RECORD_LENGTH);
+            for (int i = 0; i < bytes.length; i += RECORD_LENGTH) {
+                for (int j = 1; j < RECORD_LENGTH; j++) {
+                    assertEquals(bytes[i], bytes[i + j]);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Write records from many threads without interleaving")
+        void writeConcurrently() throws Exception {
+            testedStream = new ConcurrentByteArrayOutputStream((long) THREADS * RECORDS * RECORD_LENGTH, 1000);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicBoolean writing = new AtomicBoolean(true);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                byte[] record = new byte[RECORD_LENGTH];
+                java.util.Arrays.fill(record, (byte) t);
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < RECORDS; i++) {
+                            testedStream.write(record);
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            AtomicReference<Throwable> readerFailure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        assertWholeRecords(testedStream.toByteArray());
+                    }
+                } catch (Throwable e) {
+                    readerFailure.set(e);
+                }
+            });
+            reader.start();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            writing.set(false);
+            reader.join();
+
+            assertNull(readerFailure.get());
+            byte[] bytes = testedStream.toByteArray();
+            assertEquals((long) THREADS * RECORDS * RECORD_LENGTH, bytes.length);
+            assertWholeRecords(bytes);
+            int[] counts = new int[THREADS];
+            for (int i = 0; i < bytes.length; i += RECORD_LENGTH) {
+                counts[bytes[i]]++;
+            }
+            for (int count : counts) {
+                assertEquals(RECORDS, count);
+            }
+        }
+    }
+
+    @Nested
+    class FailedWriterTest {
+
+        ConcurrentByteArrayOutputStream failingOnSegment(int failingSegment) {
+            AtomicInteger allocations = new AtomicInteger();
+            return new ConcurrentByteArrayOutputStream(1000, 10) {
+                @Override
+                byte[] allocateSegment() {
+                    if (allocations.incrementAndGet() == failingSegment) {
+                        throw new OutOfMemoryError("Test");
+                    }
+                    return super.allocateSegment();
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("Keep writing after a failed write")
+        void writeAfterFailure() throws Exception {
+            testedStream = failingOnSegment(2);
+            testedStream.write(initArr, 0, 10);
+            assertThrows(OutOfMemoryError.class, () -> testedStream.write(initArr, 0, 10));
+            testedStream.write(initArr, 0, 10);
+            testedStream.write(1);
+            assertEquals(10, testedStream.size());
+            byte[] expected = java.util.Arrays.copyOf(initArr, 10);
+            assertArrayEquals(expected, testedStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Other threads do not wait for a failed writer")
+        void threadsAfterFailure() {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                testedStream = failingOnSegment(3);
+                AtomicInteger failures = new AtomicInteger();
+                List<Thread> threads = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    Thread thread = new Thread(() -> {
+                        for (int i = 0; i < 20; i++) {
+                            try {
+                                testedStream.write(initArr, 0, 7);
+                            } catch (OutOfMemoryError e) {
+                                failures.incrementAndGet();
+                            } catch (IOException e) {
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    });
+                    thread.start();
+                    threads.add(thread);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertEquals(1, failures.get());
+                assertTrue(testedStream.size() < 80 * 7);
+                assertEquals(testedStream.size(), testedStream.toByteArray().length);
+            });
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectByteArrayOutputStreamTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    DirectByteArrayOutputStream testedStream;
+    java.io.ByteArrayOutputStream nativeStream;
+
+    @AfterEach
+    void tearDown() {
+        if (testedStream != null) {
+            testedStream.close();
+        }
+        DirectByteArrayOutputStream.setReservationLimit(Long.MAX_VALUE);
+    }
+
+    @Nested
+    class SimpleWritingTest {
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new DirectByteArrayOutputStream(4);
+            nativeStream = new java.io.ByteArrayOutputStream();
+        }
+
+        @Test
+        @DisplayName("Write nothing")
+        void writeNothing() throws Exception {
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(0, testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write many bytes")
+        void writeManyBytes() throws Exception {
+            for (byte b : initArr) {
+                testedStream.write(b);
+                nativeStream.write(b);
+            }
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write arrays over chunk size")
+        void writeArrays() throws Exception {
+            testedStream.write(initArr, 0, 3);
+            nativeStream.write(initArr, 0, 3);
+            testedStream.write(initArr, 3, initArr.length - 3);
+            nativeStream.write(initArr, 3, initArr.length - 3);
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write byte buffers")
+        void writeByteBuffers() throws Exception {
+            ByteBuffer heap = ByteBuffer.wrap(initArr, 1, 9);
+            testedStream.write(heap);
+            nativeStream.write(initArr, 1, 9);
+            ByteBuffer direct = ByteBuffer.allocateDirect(initArr.length);
+            direct.put(initArr).flip();
+            testedStream.write(direct);
+            nativeStream.write(initArr);
+            assertFalse(heap.hasRemaining());
+            assertFalse(direct.hasRemaining());
+            assertEquals(initArr.length, direct.limit());
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write to another stream")
+        void writeToStream() throws Exception {
+            testedStream.write(initArr);
+            nativeStream.write(initArr);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Write with wrong parameters")
+        void writeWrongParameters() {
+            assertThrows(NullPointerException.class, () -> testedStream.write(null, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> testedStream.write(initArr, -1, 1));
+            assertThrows(IllegalArgumentException.class, () -> testedStream.write(initArr, 1, initArr.length));
+            assertThrows(IllegalArgumentException.class, () -> new DirectByteArrayOutputStream(0));
+        }
+    }
+
+    @Nested
+    class ChannelWritingTest {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("Write to file channel")
+        void writeToFileChannel() throws Exception {
+            testedStream = new DirectByteArrayOutputStream(1000);
+            nativeStream = new java.io.ByteArrayOutputStream();
+            for (int i = 0; i < 10_000; i++) {
+                testedStream.write(i);
+                nativeStream.write(i);
+            }
+            Path file = tempDir.resolve("direct.bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                testedStream.writeTo(channel);
+            }
+            assertArrayEquals(nativeStream.toByteArray(), Files.readAllBytes(file));
+        }
+
+        @Test
+        @DisplayName("Write to channel twice")
+        void writeTwice() throws Exception {
+            testedStream = new DirectByteArrayOutputStream(5);
+            testedStream.write(initArr);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            testedStream.writeTo(target);
+            nativeStream = new java.io.ByteArrayOutputStream();
+            nativeStream.write(initArr);
+            nativeStream.write(initArr);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Fail on a channel which writes nothing")
+        void writeToStalledChannel() throws Exception {
+            testedStream = new DirectByteArrayOutputStream(8);
+            testedStream.write(initArr);
+            WritableByteChannel stalled = new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) {
+                    return 0;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertThrows(IOException.class, () -> testedStream.writeTo(stalled));
+            });
+        }
+    }
+
+    @Nested
+    class ReservationTest {
+
+        @Test
+        @DisplayName("Reserve and release chunks")
+        void reserveAndRelease() throws Exception {
+            long before = DirectByteArrayOutputStream.getReservedBytes();
+            testedStream = new DirectByteArrayOutputStream(8);
+            testedStream.write(initArr);
+            assertEquals(before + 16, DirectByteArrayOutputStream.getReservedBytes());
+            testedStream.close();
+            testedStream.close();
+            assertEquals(before, DirectByteArrayOutputStream.getReservedBytes());
+        }
+
+        @Test
+        @DisplayName("Exceed reservation limit")
+        void exceedLimit() throws Exception {
+            long before = DirectByteArrayOutputStream.getReservedBytes();
+            DirectByteArrayOutputStream.setReservationLimit(before + 10);
+            testedStream = new DirectByteArrayOutputStream(8);
+            testedStream.write(initArr, 0, 8);
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertEquals(8, testedStream.size());
+            assertEquals(before + 8, DirectByteArrayOutputStream.getReservedBytes());
+        }
+
+        @Test
+        @DisplayName("Limit shared by streams")
+        void limitShared() throws Exception {
+            long before = DirectByteArrayOutputStream.getReservedBytes();
+            DirectByteArrayOutputStream.setReservationLimit(before + 16);
+            testedStream = new DirectByteArrayOutputStream(8);
+            testedStream.write(initArr);
+            DirectByteArrayOutputStream other = new DirectByteArrayOutputStream(8);
+            assertThrows(IOException.class, () -> other.write(1));
+            testedStream.close();
+            other.write(initArr);
+            assertEquals(initArr.length, other.size());
+            other.close();
+        }
+
+        @Test
+        @DisplayName("Use closed stream")
+        void useClosed() {
+            testedStream = new DirectByteArrayOutputStream();
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertThrows(IOException.class, () -> testedStream.write(initArr));
+            assertThrows(IOException.class, () -> testedStream.toByteArray());
+            assertThrows(IOException.class, () -> testedStream.writeTo(new java.io.ByteArrayOutputStream()));
+            assertThrows(IllegalArgumentException.class, () -> DirectByteArrayOutputStream.setReservationLimit(-1));
+        }
+    }
+
+}
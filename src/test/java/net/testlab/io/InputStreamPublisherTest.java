@@ -0,0 +1,241 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputStreamPublisherTest {
+
+    byte[] data;
+    boolean closed;
+
+    @BeforeEach
+    void setUp() {
+        data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        closed = false;
+    }
+
+    BufferedInputStream source() {
+        return new BufferedInputStream(new java.io.ByteArrayInputStream(data) {
+            @Override
+            public void close() {
+                closed = true;
+            }
+        }, 256);
+    }
+
+    /**
+     * Subscriber which collects the chunks and requests them only when told
+     */
+    class CollectingSubscriber implements Flow.Subscriber<ByteBuffer> {
+        final java.io.ByteArrayOutputStream collected = new java.io.ByteArrayOutputStream();
+        final List<Integer> chunkSizes = new ArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final InputStreamPublisher publisher;
+        Flow.Subscription subscription;
+
+        CollectingSubscriber(InputStreamPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer chunk) {
+            chunkSizes.add(chunk.remaining());
+            collected.write(chunk.array(), chunk.position(), chunk.remaining());
+            publisher.release(chunk);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    @Test
+    @DisplayName("Publish exactly the demand")
+    void publishDemand() {
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 100, BufferPool.shared(4));
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+        publisher.subscribe(subscriber);
+        assertEquals(0, subscriber.chunkSizes.size());
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.chunkSizes.size());
+        subscriber.subscription.request(40);
+        assertEquals(43, subscriber.chunkSizes.size());
+        assertFalse(subscriber.done.isDone());
+        assertFalse(closed);
+    }
+
+    @Test
+    @DisplayName("Publish the whole stream")
+    void publishAll() throws Exception {
+        BufferPool pool = BufferPool.shared(4);
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 100, pool);
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.done.get(10, TimeUnit.SECONDS);
+        assertArrayEquals(data, subscriber.collected.toByteArray());
+        assertTrue(closed);
+        assertTrue(pool.getHits() > 90);
+    }
+
+    @Test
+    @DisplayName("Publish on the executor")
+    void publishOnExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            InputStreamPublisher publisher = new InputStreamPublisher(source(), executor);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            OutputStreamSubscriber subscriber =
+                    new OutputStreamSubscriber(new BufferedOuputStream(target, 64), 2, publisher::release);
+            publisher.subscribe(subscriber);
+            assertEquals(data.length, subscriber.getCompletion().get(10, TimeUnit.SECONDS));
+            assertArrayEquals(data, target.toByteArray());
+            assertTrue(closed);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Close the stream on cancel")
+    void closeOnCancel() {
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 100, BufferPool.shared(4));
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(2);
+        subscriber.subscription.cancel();
+        assertTrue(closed);
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.chunkSizes.size());
+        assertFalse(subscriber.done.isDone());
+    }
+
+    @Test
+    @DisplayName("Complete on the request after the last chunk")
+    void completeAfterLastChunk() throws Exception {
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 1000, BufferPool.shared(4));
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(data.length / 1000);
+        assertEquals(data.length / 1000, subscriber.chunkSizes.size());
+        assertFalse(subscriber.done.isDone());
+        assertFalse(closed);
+        subscriber.subscription.request(1);
+        assertEquals(data.length / 1000, subscriber.chunkSizes.size());
+        subscriber.done.get();
+        assertArrayEquals(data, subscriber.collected.toByteArray());
+        assertTrue(closed);
+    }
+
+    @Test
+    @DisplayName("Do not read a stream which stays open without demand")
+    void cancelOpenStreamWithoutDemand() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            java.io.PipedOutputStream pipe = new java.io.PipedOutputStream();
+            CountDownLatch pipeClosed = new CountDownLatch(1);
+            InputStream open = new java.io.PipedInputStream(pipe) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    pipeClosed.countDown();
+                }
+            };
+            InputStreamPublisher publisher =
+                    new InputStreamPublisher(new BufferedInputStream(open), executor, 100, BufferPool.shared(4));
+            CountDownLatch published = new CountDownLatch(1);
+            CollectingSubscriber subscriber = new CollectingSubscriber(publisher) {
+                @Override
+                public void onNext(ByteBuffer chunk) {
+                    super.onNext(chunk);
+                    published.countDown();
+                }
+            };
+            publisher.subscribe(subscriber);
+            subscriber.subscription.request(1);
+            pipe.write(data, 0, 10);
+            pipe.flush();
+            assertTrue(published.await(2, TimeUnit.SECONDS));
+            subscriber.subscription.cancel();
+            assertTrue(pipeClosed.await(2, TimeUnit.SECONDS));
+            executor.submit(() -> { }).get(2, TimeUnit.SECONDS);
+            assertFalse(subscriber.done.isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Cancel when the subscriber throws")
+    void cancelOnThrowingSubscriber() {
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 100, BufferPool.shared(4));
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher) {
+            @Override
+            public void onNext(ByteBuffer chunk) {
+                super.onNext(chunk);
+                throw new IllegalStateException("Broken subscriber");
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(5);
+        subscriber.subscription.request(5);
+        assertEquals(1, subscriber.chunkSizes.size());
+        assertFalse(subscriber.done.isDone());
+        assertTrue(closed);
+    }
+
+    @Test
+    @DisplayName("Signal errors")
+    void signalErrors() {
+        InputStreamPublisher publisher = new InputStreamPublisher(source(), Runnable::run, 100, BufferPool.shared(4));
+        CollectingSubscriber subscriber = new CollectingSubscriber(publisher);
+        publisher.subscribe(subscriber);
+        CollectingSubscriber second = new CollectingSubscriber(publisher);
+        publisher.subscribe(second);
+        assertTrue(second.done.isCompletedExceptionally());
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.done.isCompletedExceptionally());
+        assertTrue(closed);
+
+        InputStreamPublisher failing = new InputStreamPublisher(new BufferedInputStream(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Broken");
+            }
+        }), Runnable::run);
+        CollectingSubscriber failed = new CollectingSubscriber(failing);
+        failing.subscribe(failed);
+        failed.subscription.request(1);
+        assertTrue(failed.done.isCompletedExceptionally());
+        assertThrows(IllegalArgumentException.class,
+                () -> new InputStreamPublisher(source(), Runnable::run, 0, BufferPool.shared(4)));
+    }
+
+}
@@ -0,0 +1,111 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputStreamTest {
+    final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    @TempDir
+    Path tempDir;
+
+    MappedFileInputStream testedStream;
+    java.io.ByteArrayInputStream nativeStream;
+
+    @Nested
+    class ReadingTest {
+
+        @TempDir
+        Path tempDir;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            Path file = tempDir.resolve("data.bin");
+            Files.write(file, initArr);
+            testedStream = new MappedFileInputStream(file, 4);
+            nativeStream = new java.io.ByteArrayInputStream(initArr);
+        }
+
+        @Test
+        @DisplayName("Read bytes across windows")
+        void readBytes() throws Exception {
+            for (int i = 0; i <= initArr.length; i++) {
+                assertEquals(nativeStream.read(), testedStream.read());
+            }
+        }
+
+        @Test
+        @DisplayName("Read (byte[16],1,13) across windows")
+        void readIntoArray() throws Exception {
+            byte[] testedArr = new byte[16];
+            byte[] nativeArr = new byte[16];
+            assertEquals(nativeStream.read(nativeArr, 1, 13), testedStream.read(testedArr, 1, 13));
+            assertArrayEquals(nativeArr, testedArr);
+            assertEquals(nativeStream.read(nativeArr, 0, 16), testedStream.read(testedArr, 0, 16));
+            assertArrayEquals(nativeArr, testedArr);
+            assertEquals(nativeStream.read(nativeArr, 0, 16), testedStream.read(testedArr, 0, 16));
+        }
+
+        @Test
+        @DisplayName("Skip and check available")
+        void skipBytes() throws Exception {
+            assertEquals(nativeStream.skip(5), testedStream.skip(5));
+            assertEquals(nativeStream.available(), testedStream.available());
+            assertEquals(nativeStream.read(), testedStream.read());
+            assertEquals(nativeStream.skip(-1), testedStream.skip(-1));
+            assertEquals(nativeStream.skip(100), testedStream.skip(100));
+            assertEquals(nativeStream.available(), testedStream.available());
+            assertEquals(nativeStream.read(), testedStream.read());
+        }
+
+        @Test
+        @DisplayName("Read after close")
+        void readWithError() throws Exception {
+            testedStream.close();
+            assertThrows(IOException.class, () -> {
+                testedStream.read();
+            });
+        }
+
+        @AfterEach
+        void cleanUp() throws IOException {
+            testedStream.close();
+            nativeStream.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Read file larger than Integer.MAX_VALUE")
+    void readLargeFile() throws Exception {
+        Path file = tempDir.resolve("large.bin");
+        long boundary = Integer.MAX_VALUE + 1L;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(boundary + 8);
+            raf.seek(boundary - 4);
+            raf.write(initArr, 0, 8);
+        }
+        testedStream = new MappedFileInputStream(file, 1024 * 1024);
+        assertEquals(boundary - 4, testedStream.skip(boundary - 4));
+        byte[] testedArr = new byte[8];
+        assertEquals(8, testedStream.read(testedArr, 0, 8));
+        assertArrayEquals(java.util.Arrays.copyOf(initArr, 8), testedArr);
+        assertEquals(4, testedStream.available());
+        testedStream.close();
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong window size")
+    void createWithWrongWindowSize() throws Exception {
+        Path file = Files.write(tempDir.resolve("data.bin"), initArr);
+        assertThrows(IllegalArgumentException.class, () -> {
+            new MappedFileInputStream(file, 0);
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputStreamSubscriberTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    long requested;
+    boolean cancelled;
+
+    Flow.Subscription subscription() {
+        return new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested += n;
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Write chunks and complete")
+    void writeChunks() throws Exception {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        java.io.ByteArrayOutputStream expected = new java.io.ByteArrayOutputStream();
+        OutputStreamSubscriber subscriber = new OutputStreamSubscriber(new BufferedOuputStream(target, 8));
+        try (SubmissionPublisher<ByteBuffer> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(subscriber);
+            for (int i = 0; i < 100; i++) {
+                publisher.submit(ByteBuffer.wrap(initArr, 0, i % initArr.length));
+                expected.write(initArr, 0, i % initArr.length);
+            }
+        }
+        assertEquals(expected.size(), subscriber.getCompletion().get(10, TimeUnit.SECONDS));
+        assertArrayEquals(expected.toByteArray(), target.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Request chunks by halves of prefetch")
+    void requestByHalves() {
+        OutputStreamSubscriber subscriber = new OutputStreamSubscriber(
+                new BufferedOuputStream(new java.io.ByteArrayOutputStream()), 4, null);
+        subscriber.onSubscribe(subscription());
+        assertEquals(4, requested);
+        subscriber.onNext(ByteBuffer.wrap(initArr));
+        assertEquals(4, requested);
+        subscriber.onNext(ByteBuffer.wrap(initArr));
+        assertEquals(6, requested);
+        Flow.Subscription second = subscription();
+        cancelled = false;
+        subscriber.onSubscribe(second);
+        assertTrue(cancelled);
+    }
+
+    @Test
+    @DisplayName("Release written chunks")
+    void releaseChunks() {
+        int[] released = new int[1];
+        OutputStreamSubscriber subscriber = new OutputStreamSubscriber(
+                new BufferedOuputStream(new java.io.ByteArrayOutputStream()), 2, chunk -> released[0]++);
+        subscriber.onSubscribe(subscription());
+        subscriber.onNext(ByteBuffer.wrap(initArr));
+        subscriber.onNext(ByteBuffer.wrap(initArr));
+        assertEquals(2, released[0]);
+    }
+
+    @Test
+    @DisplayName("Cancel on write failure")
+    void cancelOnFailure() {
+        OutputStreamSubscriber subscriber = new OutputStreamSubscriber(new BufferedOuputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken");
+            }
+        }, 4), 2, null);
+        subscriber.onSubscribe(subscription());
+        subscriber.onNext(ByteBuffer.wrap(initArr));
+        assertTrue(cancelled);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> subscriber.getCompletion().get());
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    @DisplayName("Complete exceptionally on error")
+    void completeOnError() {
+        OutputStreamSubscriber subscriber = new OutputStreamSubscriber(
+                new BufferedOuputStream(new java.io.ByteArrayOutputStream()));
+        subscriber.onSubscribe(subscription());
+        subscriber.onError(new IllegalStateException());
+        assertTrue(subscriber.getCompletion().isCompletedExceptionally());
+        assertThrows(IllegalArgumentException.class,
+                () -> new OutputStreamSubscriber(new BufferedOuputStream(new java.io.ByteArrayOutputStream()), 0, null));
+    }
+
+}
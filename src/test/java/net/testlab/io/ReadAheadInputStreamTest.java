@@ -0,0 +1,158 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadAheadInputStreamTest {
+    final byte[] initArr = new byte[10_000];
+
+    ReadAheadInputStream testedStream;
+    java.io.BufferedInputStream nativeStream;
+
+    @BeforeEach
+    void setUp() {
+        new Random(1).nextBytes(initArr);
+        testedStream = new ReadAheadInputStream(new java.io.ByteArrayInputStream(initArr), 64, 3);
+        nativeStream = new java.io.BufferedInputStream(new java.io.ByteArrayInputStream(initArr), 64);
+    }
+
+    @Test
+    @DisplayName("Read bytes")
+    void readBytes() throws Exception {
+        for (int i = 0; i <= initArr.length; i++) {
+            assertEquals(nativeStream.read(), testedStream.read());
+        }
+        assertEquals(-1, testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Read into array")
+    void readIntoArray() throws Exception {
+        byte[] testedArr = new byte[initArr.length];
+        int readCount = 0;
+        int n;
+        while ((n = testedStream.read(testedArr, readCount, Math.min(100, testedArr.length - readCount))) > 0) {
+            readCount += n;
+        }
+        assertEquals(initArr.length, readCount);
+        assertArrayEquals(initArr, testedArr);
+        assertEquals(-1, testedStream.read(testedArr, 0, 10));
+    }
+
+    @Test
+    @DisplayName("Skip prefetched data")
+    void skipBytes() throws Exception {
+        int position = 0;
+        for (int k = 1; position < initArr.length; k += 7) {
+            assertEquals(initArr[position++] & 0xFF, testedStream.read());
+            long skipped = testedStream.skip(k);
+            assertTrue(skipped > 0 && skipped <= k);
+            position += skipped;
+        }
+        assertEquals(0, testedStream.skip(10));
+        assertEquals(-1, testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Read bytes from stream returning empty reads")
+    void readWithEmptyReads() throws Exception {
+        InputStream sometimesEmpty = new InputStream() {
+            int count;
+            boolean empty;
+
+            @Override
+            public int read() {
+                return count < 100 ? count++ : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int lengthToRead) {
+                empty = !empty;
+                if (empty && count < 100) {
+                    return 0;
+                }
+                int b = read();
+                if (b < 0) {
+                    return -1;
+                }
+                bytes[offset] = (byte) b;
+                return 1;
+            }
+        };
+        testedStream = new ReadAheadInputStream(sometimesEmpty, 16, 2);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, testedStream.read());
+        }
+        assertEquals(-1, testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Mark is not supported")
+    void markNotSupported() throws Exception {
+        assertFalse(testedStream.markSupported());
+        testedStream.mark(10);
+        assertEquals(initArr[0] & 0xFF, testedStream.read());
+        assertThrows(IOException.class, () -> testedStream.reset());
+        assertEquals(initArr[1] & 0xFF, testedStream.read());
+    }
+
+    @Test
+    @DisplayName("Failure is reported after the data read before it")
+    void readWithFailure() throws Exception {
+        InputStream failing = new InputStream() {
+            int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count == 100) {
+                    throw new IOException("Broken");
+                }
+                return count++;
+            }
+        };
+        testedStream = new ReadAheadInputStream(failing, 16, 2);
+        byte[] testedArr = new byte[200];
+        int readCount = 0;
+        int n;
+        try {
+            while ((n = testedStream.read(testedArr, readCount, 200 - readCount)) > 0) {
+                readCount += n;
+            }
+            fail("Failure is not reported");
+        } catch (IOException e) {
+            assertEquals(100, readCount);
+        }
+        assertThrows(IOException.class, () -> {
+            testedStream.read();
+        });
+    }
+
+    @Test
+    @DisplayName("Read after close")
+    void readWithError() throws Exception {
+        assertEquals(nativeStream.read(), testedStream.read());
+        testedStream.close();
+        assertThrows(IOException.class, () -> {
+            testedStream.read();
+        });
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong depth")
+    void createWithWrongDepth() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new ReadAheadInputStream(new java.io.ByteArrayInputStream(initArr), 16, 0);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        testedStream.close();
+        nativeStream.close();
+    }
+}
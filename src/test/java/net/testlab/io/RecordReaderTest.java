@@ -0,0 +1,155 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    byte[] record(int i) {
+        byte[] record = new byte[i * 7 % 50];
+        for (int j = 0; j < record.length; j++) {
+            record[j] = (byte) (i + j);
+        }
+        return record;
+    }
+
+    byte[] write(LengthPrefix prefix, int records) throws IOException {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        try (RecordWriter writer = new RecordWriter(new BufferedOuputStream(target), prefix, 0)) {
+            for (int i = 0; i < records; i++) {
+                writer.writeRecord(record(i));
+            }
+        }
+        return target.toByteArray();
+    }
+
+    byte[] bytesOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("Read records with varint prefix")
+    void readVarIntPrefix() throws Exception {
+        byte[] data = write(LengthPrefix.VARINT, 1000);
+        try (RecordReader reader = new RecordReader(new BufferedInputStream(new java.io.ByteArrayInputStream(data), 64))) {
+            for (int i = 0; i < 1000; i++) {
+                assertArrayEquals(record(i), bytesOf(reader.readRecord()));
+            }
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    @DisplayName("Read records with fixed prefix")
+    void readFixedPrefix() throws Exception {
+        byte[] data = write(LengthPrefix.FIXED_INT, 1000);
+        try (RecordReader reader = new RecordReader(new BufferedInputStream(new java.io.ByteArrayInputStream(data), 64),
+                LengthPrefix.FIXED_INT)) {
+            for (int i = 0; i < 1000; i++) {
+                assertArrayEquals(record(i), bytesOf(reader.readRecord()));
+            }
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    @DisplayName("Return views of the buffer")
+    void returnViews() throws Exception {
+        byte[] data = write(LengthPrefix.VARINT, 10);
+        RecordReader reader = new RecordReader(new BufferedInputStream(new java.io.ByteArrayInputStream(data)));
+        ByteBuffer record = reader.readRecord();
+        assertTrue(record.isReadOnly());
+        assertEquals(0, record.position());
+    }
+
+    @Test
+    @DisplayName("Read records longer than the buffer into pooled arrays")
+    void readPooled() throws Exception {
+        java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+        byte[] large = new byte[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        try (RecordWriter writer = new RecordWriter(new BufferedOuputStream(target))) {
+            for (int i = 0; i < 10; i++) {
+                writer.writeRecord(large);
+                writer.writeRecord(initArr);
+            }
+        }
+        BufferPool pool = BufferPool.shared(4);
+        try (RecordReader reader = new RecordReader(
+                new BufferedInputStream(new java.io.ByteArrayInputStream(target.toByteArray()), 64),
+                LengthPrefix.VARINT, pool)) {
+            for (int i = 0; i < 10; i++) {
+                ByteBuffer record = reader.readRecord();
+                assertTrue(record.isReadOnly());
+                assertEquals(0, record.position());
+                assertEquals(large.length, record.capacity());
+                assertArrayEquals(large, bytesOf(record));
+                assertArrayEquals(initArr, bytesOf(reader.readRecord()));
+            }
+            assertNull(reader.readRecord());
+        }
+        assertEquals(1, pool.getMisses());
+        assertEquals(9, pool.getHits());
+    }
+
+    @Test
+    @DisplayName("Read record from stream which stays open")
+    void readFromOpenStream() throws Exception {
+        java.io.PipedOutputStream pipe = new java.io.PipedOutputStream();
+        RecordReader reader = new RecordReader(new BufferedInputStream(new java.io.PipedInputStream(pipe)));
+        pipe.write(new byte[]{3, 1, 2, 3});
+        pipe.flush();
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> assertArrayEquals(new byte[]{1, 2, 3}, bytesOf(reader.readRecord())));
+    }
+
+    @Test
+    @DisplayName("Read truncated record")
+    void readTruncated() throws Exception {
+        byte[] data = write(LengthPrefix.FIXED_INT, 3);
+        byte[] truncated = java.util.Arrays.copyOf(data, data.length - 1);
+        RecordReader reader = new RecordReader(new BufferedInputStream(new java.io.ByteArrayInputStream(truncated)),
+                LengthPrefix.FIXED_INT);
+        reader.readRecord();
+        reader.readRecord();
+        assertThrows(EOFException.class, reader::readRecord);
+        RecordReader prefixOnly = new RecordReader(
+                new BufferedInputStream(new java.io.ByteArrayInputStream(new byte[]{0, 0})), LengthPrefix.FIXED_INT);
+        assertThrows(EOFException.class, prefixOnly::readRecord);
+    }
+
+    @Test
+    @DisplayName("Reject wrong lengths")
+    void rejectWrongLengths() throws Exception {
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(-5);
+        RecordReader negative = new RecordReader(
+                new BufferedInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray())), LengthPrefix.FIXED_INT);
+        assertThrows(IOException.class, negative::readRecord);
+        RecordReader limited = new RecordReader(
+                new BufferedInputStream(new java.io.ByteArrayInputStream(write(LengthPrefix.VARINT, 10))));
+        limited.setMaxRecordLength(20);
+        limited.readRecord();
+        limited.readRecord();
+        limited.readRecord();
+        assertThrows(IOException.class, limited::readRecord);
+        assertThrows(IllegalArgumentException.class, () -> limited.setMaxRecordLength(-1));
+        byte[] overflowing = {(byte) 0x85, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10, 1, 2, 3, 4, 5};
+        RecordReader wrapped = new RecordReader(new BufferedInputStream(new java.io.ByteArrayInputStream(overflowing)));
+        assertThrows(IOException.class, wrapped::readRecord);
+    }
+
+}
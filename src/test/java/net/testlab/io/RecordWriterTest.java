@@ -0,0 +1,126 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordWriterTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    java.io.ByteArrayOutputStream target;
+    int flushes;
+
+    @BeforeEach
+    void setUp() {
+        target = new java.io.ByteArrayOutputStream();
+        flushes = 0;
+    }
+
+    OutputStream countingFlushes() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                target.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                target.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                flushes++;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Write records with fixed prefix")
+    void writeFixedPrefix() throws Exception {
+        try (RecordWriter writer = new RecordWriter(new BufferedOuputStream(target, 16), LengthPrefix.FIXED_INT, 0)) {
+            for (int i = 0; i <= initArr.length; i++) {
+                writer.writeRecord(initArr, 0, i);
+            }
+        }
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(target.toByteArray()));
+        for (int i = 0; i <= initArr.length; i++) {
+            assertEquals(i, in.readInt());
+            byte[] record = new byte[i];
+            in.readFully(record);
+            assertArrayEquals(java.util.Arrays.copyOf(initArr, i), record);
+        }
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    @DisplayName("Write records with varint prefix")
+    void writeVarIntPrefix() throws Exception {
+        byte[] large = new byte[300];
+        try (RecordWriter writer = new RecordWriter(new BufferedOuputStream(target, 8))) {
+            writer.writeRecord(initArr);
+            writer.writeRecord(large);
+        }
+        byte[] written = target.toByteArray();
+        assertEquals(1 + initArr.length + 2 + large.length, written.length);
+        assertEquals(initArr.length, written[0]);
+        assertEquals((byte) (300 & 0x7F | 0x80), written[1 + initArr.length]);
+        assertEquals(300 >>> 7, written[2 + initArr.length]);
+    }
+
+    @Test
+    @DisplayName("Flush once per batch")
+    void flushPerBatch() throws Exception {
+        RecordWriter writer = new RecordWriter(new BufferedOuputStream(countingFlushes()), LengthPrefix.VARINT, 10);
+        for (int i = 0; i < 95; i++) {
+            writer.writeRecord(initArr);
+        }
+        assertEquals(9, flushes);
+        assertEquals(5, writer.getPendingRecords());
+        assertEquals(90 * (1 + initArr.length), target.size());
+        writer.close();
+        writer.close();
+        assertEquals(95 * (1 + initArr.length), target.size());
+        assertEquals(0, writer.getPendingRecords());
+    }
+
+    @Test
+    @DisplayName("Do not flush without batch")
+    void noBatch() throws Exception {
+        RecordWriter writer = new RecordWriter(new BufferedOuputStream(countingFlushes()));
+        for (int i = 0; i < 100; i++) {
+            writer.writeRecord(initArr);
+        }
+        assertEquals(0, flushes);
+        assertEquals(100, writer.getPendingRecords());
+        writer.flush();
+        assertEquals(1, flushes);
+        assertEquals(100 * (1 + initArr.length), target.size());
+    }
+
+    @Test
+    @DisplayName("Write with wrong parameters")
+    void writeWrongParameters() {
+        RecordWriter writer = new RecordWriter(new BufferedOuputStream(target));
+        assertThrows(NullPointerException.class, () -> writer.writeRecord(null));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeRecord(initArr, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> writer.writeRecord(initArr, 1, initArr.length));
+        assertThrows(NullPointerException.class, () -> new RecordWriter(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RecordWriter(new BufferedOuputStream(target), LengthPrefix.VARINT, -1));
+    }
+
+    @Test
+    @DisplayName("Write into closed stream")
+    void writeClosed() throws IOException {
+        RecordWriter writer = new RecordWriter(new BufferedOuputStream(target));
+        writer.close();
+        assertThrows(IOException.class, () -> writer.writeRecord(initArr));
+    }
+
+}
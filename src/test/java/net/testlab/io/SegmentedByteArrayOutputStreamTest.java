@@ -0,0 +1,87 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedByteArrayOutputStreamTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    SegmentedByteArrayOutputStream testedStream;
+    java.io.ByteArrayOutputStream nativeStream;
+
+    @Nested
+    class SimpleWritingTest {
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new SegmentedByteArrayOutputStream(3);
+            nativeStream = new java.io.ByteArrayOutputStream();
+        }
+
+        @Test
+        @DisplayName("Write nothing")
+        void writeNothing() throws Exception {
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(0, testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write many bytes")
+        void writeManyBytes() throws Exception {
+            for (byte b : initArr) {
+                testedStream.write(b);
+                nativeStream.write(b);
+            }
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write arrays over segment size")
+        void writeArrays() throws Exception {
+            testedStream.write(initArr, 0, 2);
+            nativeStream.write(initArr, 0, 2);
+            testedStream.write(initArr, 2, initArr.length - 2);
+            nativeStream.write(initArr, 2, initArr.length - 2);
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Write to another stream")
+        void writeToStream() throws Exception {
+            testedStream.write(initArr);
+            nativeStream.write(initArr);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+        }
+
+        @AfterEach
+        void cleanUp() throws IOException {
+            testedStream.close();
+            nativeStream.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong segment size")
+    void createWithWrongSegmentSize() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> {
+            testedStream = new SegmentedByteArrayOutputStream(0);
+        });
+    }
+
+    @Test
+    @DisplayName("Try to write with wrong offset")
+    void writeWithWrongOffset() throws Exception {
+        testedStream = new SegmentedByteArrayOutputStream();
+        assertThrows(IllegalArgumentException.class, () -> {
+            testedStream.write(initArr, 10, 10);
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillingByteArrayOutputStreamTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    SpillingByteArrayOutputStream testedStream;
+    java.io.ByteArrayOutputStream nativeStream;
+
+    @Nested
+    class InMemoryTest {
+
+        @TempDir
+        Path tempDir;
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new SpillingByteArrayOutputStream(100, tempDir);
+            nativeStream = new java.io.ByteArrayOutputStream();
+        }
+
+        @Test
+        @DisplayName("Write nothing")
+        void writeNothing() throws Exception {
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(0, testedStream.size());
+            assertFalse(testedStream.isSpilled());
+        }
+
+        @Test
+        @DisplayName("Write under threshold")
+        void writeUnderThreshold() throws Exception {
+            for (byte b : initArr) {
+                testedStream.write(b);
+                nativeStream.write(b);
+            }
+            testedStream.write(initArr, 2, 5);
+            nativeStream.write(initArr, 2, 5);
+            assertFalse(testedStream.isSpilled());
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(0, files.count());
+            }
+        }
+
+        @Test
+        @DisplayName("Read written data")
+        void readWritten() throws Exception {
+            testedStream.write(initArr);
+            nativeStream.write(initArr);
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+            try (InputStream in = testedStream.toInputStream()) {
+                assertArrayEquals(nativeStream.toByteArray(), in.readAllBytes());
+            }
+        }
+
+        @Test
+        @DisplayName("Write with wrong parameters")
+        void writeWrongParameters() {
+            assertThrows(NullPointerException.class, () -> testedStream.write(null, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> testedStream.write(initArr, -1, 1));
+            assertThrows(IllegalArgumentException.class, () -> testedStream.write(initArr, 1, initArr.length));
+            assertThrows(IllegalArgumentException.class, () -> new SpillingByteArrayOutputStream(-1));
+        }
+    }
+
+    @Nested
+    class SpillingTest {
+
+        @TempDir
+        Path tempDir;
+
+        @BeforeEach
+        void setUp() {
+            testedStream = new SpillingByteArrayOutputStream(20, tempDir);
+            nativeStream = new java.io.ByteArrayOutputStream();
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+            testedStream.close();
+        }
+
+        @Test
+        @DisplayName("Spill single bytes")
+        void spillBytes() throws Exception {
+            for (int i = 0; i < 20; i++) {
+                testedStream.write(i);
+                nativeStream.write(i);
+            }
+            assertFalse(testedStream.isSpilled());
+            testedStream.write(20);
+            nativeStream.write(20);
+            assertTrue(testedStream.isSpilled());
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Spill many arrays")
+        void spillArrays() throws Exception {
+            for (int i = 0; i < 10_000; i++) {
+                testedStream.write(initArr, i % 5, initArr.length - i % 5);
+                nativeStream.write(initArr, i % 5, initArr.length - i % 5);
+            }
+            assertTrue(testedStream.isSpilled());
+            assertArrayEquals(nativeStream.toByteArray(), testedStream.toByteArray());
+            assertEquals(nativeStream.size(), testedStream.size());
+        }
+
+        @Test
+        @DisplayName("Read spilled data")
+        void readSpilled() throws Exception {
+            for (int i = 0; i < 1000; i++) {
+                testedStream.write(initArr);
+                nativeStream.write(initArr);
+            }
+            java.io.ByteArrayOutputStream target = new java.io.ByteArrayOutputStream();
+            testedStream.writeTo(target);
+            assertArrayEquals(nativeStream.toByteArray(), target.toByteArray());
+            try (InputStream in = testedStream.toInputStream()) {
+                assertArrayEquals(nativeStream.toByteArray(), in.readAllBytes());
+            }
+            Path copy = tempDir.resolve("copy.bin");
+            try (FileOutputStream out = new FileOutputStream(copy.toFile())) {
+                testedStream.writeTo(out);
+            }
+            assertArrayEquals(nativeStream.toByteArray(), Files.readAllBytes(copy));
+        }
+
+        @Test
+        @DisplayName("Delete file on close")
+        void deleteOnClose() throws Exception {
+            testedStream.write(new byte[100]);
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(1, files.count());
+            }
+            testedStream.close();
+            testedStream.close();
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(0, files.count());
+            }
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertThrows(IOException.class, () -> testedStream.toByteArray());
+            assertThrows(IOException.class, () -> testedStream.toInputStream());
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamMetricsTest {
+    final byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    StreamMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = StreamMetrics.forGroup("test");
+        metrics.reset();
+    }
+
+    @Test
+    @DisplayName("Same group shares metrics")
+    void shareGroup() throws Exception {
+        assertSame(metrics, StreamMetrics.forGroup("test"));
+        assertNotSame(metrics, StreamMetrics.forGroup("other"));
+    }
+
+    @Test
+    @DisplayName("Buffered input stream counts refills")
+    void countRefills() throws Exception {
+        BufferedInputStream testedStream = new BufferedInputStream(new java.io.ByteArrayInputStream(initArr), 4);
+        testedStream.setMetrics(metrics);
+        for (byte b : initArr) {
+            assertEquals(b, testedStream.read());
+        }
+        assertEquals(-1, testedStream.read());
+        testedStream.close();
+
+        assertEquals(initArr.length, metrics.getBytesRead());
+        // the read at end of the stream is not a refill, but its time is counted
+        assertEquals(3, metrics.getRefillCount());
+        assertEquals(0, metrics.getRefillSizeHistogram()[0]);
+        assertEquals(initArr.length / 12.0, metrics.getAverageRefillRatio(), 1e-9);
+        assertEquals(metrics.getRefillCount() + 1, sum(metrics.getReadBlockedNanosHistogram()));
+    }
+
+    @Test
+    @DisplayName("Buffered output stream counts writes and flushes")
+    void countWrites() throws Exception {
+        BufferedOuputStream testedStream = new BufferedOuputStream(new java.io.ByteArrayOutputStream(), 4);
+        testedStream.setMetrics(metrics);
+        testedStream.write(initArr, 0, 3);
+        testedStream.write(initArr, 3, 2);
+        testedStream.write(initArr);
+        testedStream.flush();
+
+        assertEquals(15, metrics.getBytesWritten());
+        assertEquals(3, metrics.getDownstreamWriteCount());
+        assertEquals(1, metrics.getFlushCount());
+        assertEquals(1, metrics.getDownstreamWriteSizeHistogram()[4]);
+    }
+
+    @Test
+    @DisplayName("Byte array streams count bytes")
+    void countMemoryStreams() throws Exception {
+        ByteArrayOutputStream testedOutput = new ByteArrayOutputStream();
+        testedOutput.setMetrics(metrics);
+        testedOutput.write(initArr);
+        testedOutput.write(11);
+        ByteArrayInputStream testedInput = new ByteArrayInputStream(testedOutput.toByteArray());
+        testedInput.setMetrics(metrics);
+        testedInput.read();
+        testedInput.read(new byte[4], 0, 4);
+        testedInput.transferTo(new java.io.ByteArrayOutputStream());
+
+        assertEquals(11, metrics.getBytesWritten());
+        assertEquals(11, metrics.getBytesRead());
+    }
+
+    @Test
+    @DisplayName("Metrics are published through JMX")
+    void publishThroughJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.recordWrite(42);
+        assertEquals(42L, server.getAttribute(StreamMetrics.objectName("test"), "BytesWritten"));
+        assertEquals("test", server.getAttribute(StreamMetrics.objectName("test"), "Group"));
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
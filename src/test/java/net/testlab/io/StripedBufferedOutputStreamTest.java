@@ -0,0 +1,159 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedBufferedOutputStreamTest {
+
+    byte[] initArr = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, -1, -128, 127, 0};
+
+    java.io.ByteArrayOutputStream testedByteStream;
+    java.io.ByteArrayOutputStream nativeByteStream;
+
+    StripedBufferedOutputStream testedStream;
+    java.io.BufferedOutputStream nativeStream;
+
+    @Nested
+    class SingleThreadTest {
+
+        @BeforeEach
+        void setUp() {
+            testedByteStream = new java.io.ByteArrayOutputStream();
+            testedStream = new StripedBufferedOutputStream(testedByteStream, 4);
+            nativeByteStream = new java.io.ByteArrayOutputStream();
+            nativeStream = new java.io.BufferedOutputStream(nativeByteStream, 4);
+        }
+
+        @Test
+        @DisplayName("Write bytes and arrays like BufferedOutputStream")
+        void writeLikeNative() throws Exception {
+            testedStream.write(initArr[0]);
+            nativeStream.write(initArr[0]);
+            testedStream.write(initArr, 1, 2);
+            nativeStream.write(initArr, 1, 2);
+            testedStream.write(initArr, 3, 10);
+            nativeStream.write(initArr, 3, 10);
+            testedStream.write(initArr[13]);
+            nativeStream.write(initArr[13]);
+            testedStream.flush();
+            nativeStream.flush();
+            assertArrayEquals(nativeByteStream.toByteArray(), testedByteStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Keep records in the buffer until it is full")
+        void bufferRecords() throws Exception {
+            testedStream.write(initArr, 0, 3);
+            assertEquals(0, testedByteStream.size());
+            testedStream.write(initArr, 3, 2);
+            assertArrayEquals(Arrays.copyOf(initArr, 3), testedByteStream.toByteArray());
+            testedStream.close();
+            assertArrayEquals(Arrays.copyOf(initArr, 5), testedByteStream.toByteArray());
+        }
+
+        @Test
+        @DisplayName("Use closed stream")
+        void useClosed() throws Exception {
+            testedStream.close();
+            testedStream.close();
+            assertThrows(IOException.class, () -> testedStream.write(1));
+            assertThrows(IOException.class, () -> testedStream.write(initArr));
+            assertThrows(IOException.class, () -> testedStream.flush());
+        }
+
+        @Test
+        @DisplayName("Create with wrong capacity")
+        void createWithWrongCapacity() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new StripedBufferedOutputStream(testedByteStream, 0));
+        }
+    }
+
+    @Nested
+    class ManyThreadsTest {
+
+        static final int THREADS = 8;
+        static final int RECORDS = 5000;
+
+        @Test
+        @DisplayName("Write records from many threads without interleaving")
+        void writeConcurrently() throws Exception {
+            testedByteStream = new java.io.ByteArrayOutputStream();
+            testedStream = new StripedBufferedOutputStream(testedByteStream, 100);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                // records of different length, some longer than the buffer
+                byte[] record = new byte[t * 20 + 1];
+                Arrays.fill(record, (byte) t);
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < RECORDS; i++) {
+                            testedStream.write(record);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            testedStream.close();
+
+            byte[] bytes = testedByteStream.toByteArray();
+            int[] counts = new int[THREADS];
+            for (int i = 0; i < bytes.length; ) {
+                int t = bytes[i];
+                for (int j = 0; j < t * 20 + 1; j++) {
+                    assertEquals(t, bytes[i + j]);
+                }
+                counts[t]++;
+                i += t * 20 + 1;
+            }
+            for (int count : counts) {
+                assertEquals(RECORDS, count);
+            }
+        }
+
+        @Test
+        @DisplayName("Lose no records written while closing")
+        void writeWhileClosing() throws Exception {
+            for (int round = 0; round < 50; round++) {
+                testedByteStream = new java.io.ByteArrayOutputStream();
+                testedStream = new StripedBufferedOutputStream(testedByteStream, 100);
+                AtomicLong accepted = new AtomicLong();
+                List<Thread> threads = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    Thread thread = new Thread(() -> {
+                        try {
+                            while (true) {
+                                testedStream.write(initArr, 0, 3);
+                                accepted.addAndGet(3);
+                            }
+                        } catch (IOException e) {
+                            // the stream is closed
+                        }
+                    });
+                    thread.start();
+                    threads.add(thread);
+                }
+                Thread.sleep(1);
+                testedStream.close();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertEquals(accepted.get(), testedByteStream.size());
+            }
+        }
+    }
+
+}
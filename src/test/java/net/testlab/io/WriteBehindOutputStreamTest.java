@@ -0,0 +1,152 @@
+package net.testlab.io;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindOutputStreamTest {
+    final byte[] initArr = new byte[10_000];
+
+    java.io.ByteArrayOutputStream testedByteStream;
+    WriteBehindOutputStream testedStream;
+
+    @BeforeEach
+    void setUp() {
+        new Random(1).nextBytes(initArr);
+        testedByteStream = new java.io.ByteArrayOutputStream();
+        testedStream = new WriteBehindOutputStream(testedByteStream, 64, 2);
+    }
+
+    @Test
+    @DisplayName("Write bytes and flush")
+    void writeBytes() throws Exception {
+        for (byte b : initArr) {
+            testedStream.write(b);
+        }
+        testedStream.flush();
+        assertArrayEquals(initArr, testedByteStream.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Write arrays and close")
+    void writeArrays() throws Exception {
+        testedStream.write(initArr, 0, 10);
+        testedStream.write(initArr, 10, initArr.length - 10);
+        testedStream.close();
+        testedStream.close();
+        assertArrayEquals(initArr, testedByteStream.toByteArray());
+        assertThrows(IOException.class, () -> {
+            testedStream.write(1);
+            testedStream.flush();
+        });
+    }
+
+    @Test
+    @DisplayName("Producer waits when all buffers are in flight")
+    void writeWithBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream slow = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        testedStream = new WriteBehindOutputStream(slow, 4, 1);
+        Thread producer = new Thread(() -> {
+            try {
+                testedStream.write(initArr, 0, 100);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(producer.isAlive());
+    }
+
+    @Test
+    @DisplayName("Deferred failure is rethrown on flush")
+    void writeWithFailure() throws Exception {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken");
+            }
+        };
+        testedStream = new WriteBehindOutputStream(failing, 4, 2);
+        testedStream.write(initArr, 0, 3);
+        assertThrows(IOException.class, () -> {
+            testedStream.flush();
+        });
+        assertThrows(IOException.class, () -> {
+            testedStream.close();
+        });
+    }
+
+    @Test
+    @DisplayName("Runtime failure is rethrown without blocking")
+    void writeWithRuntimeFailure() {
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new IllegalStateException("Broken");
+            }
+        };
+        testedStream = new WriteBehindOutputStream(failing, 4, 2);
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            IOException e = assertThrows(IOException.class, () -> {
+                testedStream.write(initArr, 0, 40);
+                testedStream.flush();
+            });
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertThrows(IOException.class, () -> {
+                testedStream.close();
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Write after close")
+    void writeAfterClose() throws Exception {
+        testedStream.write(initArr, 0, 10);
+        testedStream.close();
+        assertThrows(IOException.class, () -> testedStream.write(1));
+        assertThrows(IOException.class, () -> testedStream.write(initArr, 0, 10));
+        assertEquals(10, testedByteStream.size());
+    }
+
+    @Test
+    @DisplayName("Try to create with wrong number of buffers")
+    void createWithWrongInFlight() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> {
+            new WriteBehindOutputStream(testedByteStream, 16, 0);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        try {
+            testedStream.close();
+        } catch (IOException e) {
+            // failure is already checked
+        }
+    }
+}